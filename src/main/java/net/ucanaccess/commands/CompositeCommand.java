@@ -18,12 +18,16 @@ package net.ucanaccess.commands;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import com.healthmarketscience.jackcess.Cursor;
+import com.healthmarketscience.jackcess.RowId;
 
 import net.ucanaccess.jdbc.UcanaccessSQLException;
 
@@ -33,6 +37,7 @@ public class CompositeCommand implements ICommand {
     private String               execId;
     private IndexSelector        indexSelector;
     private List<ICursorCommand> rollbackCache = new ArrayList<ICursorCommand>();
+    private RowLocator           rowLocator;
 
     public CompositeCommand() {
     }
@@ -49,6 +54,14 @@ public class CompositeCommand implements ICommand {
         return composite;
     }
 
+    public IndexSelector getIndexSelector() {
+        return indexSelector;
+    }
+
+    public void setRowLocator(RowLocator _rowLocator) {
+        this.rowLocator = _rowLocator;
+    }
+
     @Override
     public String getExecId() {
         return this.execId;
@@ -76,26 +89,108 @@ public class CompositeCommand implements ICommand {
     public IFeedbackAction persist() throws SQLException {
         try {
             Cursor cur = indexSelector.getCursor();
-            cur.beforeFirst();
-            Set<String> columnNames = composite.get(0).getRowPattern().keySet();
-            while (composite.size() > 0 && moveToNextRow(cur, columnNames)) {
-                Iterator<ICursorCommand> it = composite.iterator();
-                while (it.hasNext()) {
-                    ICursorCommand comm = it.next();
-                    if (comm.currentRowMatches(cur, this.currentRow)) {
-                        comm.persistCurrentRow(cur);
-                        it.remove();
-                        rollbackCache.add(comm);
-                        break;
-                    }
+            Set<RowId> touched = new HashSet<RowId>();
+            List<RowId> updated = new ArrayList<RowId>();
+            if (this.rowLocator != null && composite.size() == 1) {
+                persist(cur, this.rowLocator, touched, updated);
+            } else {
+                persistMatching(cur, touched, updated);
+                if (composite.size() > 0) {
+                    persistScanning(cur, touched, updated);
                 }
             }
+            if (this.rowLocator != null) {
+                this.rowLocator.reindex(cur, updated);
+            }
             return null;
         } catch (IOException e) {
             throw new UcanaccessSQLException(e);
         }
     }
 
+    private void persist(Cursor cur, RowLocator locator, Set<RowId> touched, List<RowId> updated)
+            throws IOException, SQLException {
+        Iterator<ICursorCommand> it = composite.iterator();
+        while (it.hasNext()) {
+            ICursorCommand comm = it.next();
+            if (locator.findRow(cur, comm)) {
+                persistCurrentRow(cur, comm, touched, updated);
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Resolves all the commands in a single scan: the pending row patterns are hashed by their normalized values, so
+     * each row is only matched against the commands sharing its fingerprint.
+     */
+    private void persistMatching(Cursor cur, Set<RowId> touched, List<RowId> updated)
+            throws IOException, SQLException {
+        Set<String> columnNames = composite.get(0).getRowPattern().keySet();
+        Map<List<Object>, List<ICursorCommand>> pending = new HashMap<List<Object>, List<ICursorCommand>>();
+        for (ICursorCommand comm : composite) {
+            List<Object> fp = IndexSelector.fingerprint(comm.getRowPattern(), columnNames);
+            List<ICursorCommand> bucket = pending.get(fp);
+            if (bucket == null) {
+                bucket = new LinkedList<ICursorCommand>();
+                pending.put(fp, bucket);
+            }
+            bucket.add(comm);
+        }
+        int left = composite.size();
+        cur.beforeFirst();
+        while (left > 0 && moveToNextRow(cur, columnNames)) {
+            List<ICursorCommand> candidates = pending.get(IndexSelector.fingerprint(this.currentRow, columnNames));
+            if (candidates == null) {
+                continue;
+            }
+            Iterator<ICursorCommand> it = candidates.iterator();
+            while (it.hasNext()) {
+                ICursorCommand comm = it.next();
+                if (comm.currentRowMatches(cur, this.currentRow)) {
+                    persistCurrentRow(cur, comm, touched, updated);
+                    it.remove();
+                    left--;
+                    break;
+                }
+            }
+        }
+        composite.removeAll(new HashSet<ICursorCommand>(rollbackCache));
+    }
+
+    // commands whose values the column matcher only equates after converting them to the column type are matched
+    // the old way, skipping the rows already persisted
+    private void persistScanning(Cursor cur, Set<RowId> touched, List<RowId> updated)
+            throws IOException, SQLException {
+        Set<String> columnNames = composite.get(0).getRowPattern().keySet();
+        cur.beforeFirst();
+        while (composite.size() > 0 && moveToNextRow(cur, columnNames)) {
+            if (touched.contains(RowLocator.currentRowId(cur))) {
+                continue;
+            }
+            Iterator<ICursorCommand> it = composite.iterator();
+            while (it.hasNext()) {
+                ICursorCommand comm = it.next();
+                if (comm.currentRowMatches(cur, this.currentRow)) {
+                    persistCurrentRow(cur, comm, touched, updated);
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    private void persistCurrentRow(Cursor cur, ICursorCommand comm, Set<RowId> touched, List<RowId> updated)
+            throws IOException, SQLException {
+        RowId rowId = RowLocator.currentRowId(cur);
+        comm.persistCurrentRow(cur);
+        touched.add(rowId);
+        if (comm.getType().equals(TYPES.UPDATE)) {
+            updated.add(rowId);
+        }
+        rollbackCache.add(comm);
+    }
+
     @Override
     public IFeedbackAction rollback() throws SQLException {
         for (ICursorCommand ic : this.rollbackCache) {
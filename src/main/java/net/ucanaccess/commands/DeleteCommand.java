@@ -32,7 +32,11 @@ public class DeleteCommand extends AbstractCursorCommand {
     private Table               table;
 
     public DeleteCommand(Table _table, Map<String, Object> _rowPattern, String _execId) {
-        this.indexSelector = new IndexSelector(_table);
+        this(_table, new IndexSelector(_table), _rowPattern, _execId);
+    }
+
+    public DeleteCommand(Table _table, IndexSelector _indexSelector, Map<String, Object> _rowPattern, String _execId) {
+        this.indexSelector = _indexSelector;
         this.rowPattern = _rowPattern;
         this.execId = _execId;
         this.table = _table;
@@ -17,9 +17,12 @@ package net.ucanaccess.commands;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import net.ucanaccess.complex.ComplexBase;
 import net.ucanaccess.converters.SQLConverter;
@@ -116,7 +119,39 @@ public class IndexSelector {
         this.table = _table;
     }
 
-    public Index getBestIndex() {
+    /**
+     * Maps a column value to a key that is the same for any two values of the same kind the {@link ColumnMatcher}
+     * considers equal (numbers, dates, strings, binaries...). Different values may share a key, so candidates found
+     * through it must still be checked with the column matcher.
+     */
+    static Object normalize(Object _value) {
+        if (_value == null || _value instanceof String || _value instanceof Boolean) {
+            return _value;
+        }
+        if (_value instanceof Byte) {
+            return (double) SQLConverter.asUnsigned((Byte) _value);
+        }
+        if (_value instanceof Number) {
+            return Math.floor(((Number) _value).doubleValue());
+        }
+        if (_value instanceof Date) {
+            return ((Date) _value).getTime();
+        }
+        if (_value instanceof byte[]) {
+            return Arrays.hashCode((byte[]) _value);
+        }
+        return Object.class;
+    }
+
+    static List<Object> fingerprint(Map<String, Object> row, Collection<String> columnNames) {
+        List<Object> fp = new ArrayList<Object>(columnNames.size());
+        for (String cn : columnNames) {
+            fp.add(normalize(row.get(cn)));
+        }
+        return fp;
+    }
+
+    public synchronized Index getBestIndex() {
         if (this.bestIndex == null) {
             List<? extends Index> li = table.getIndexes();
             for (Index idx : li) {
@@ -154,7 +189,12 @@ public class IndexSelector {
         return cursor;
     }
 
-    public boolean isPrimaryCursor() {
+    public synchronized boolean isPrimaryCursor() {
         return primaryCursor;
     }
+
+    public boolean isUniqueCursor() {
+        Index idx = getBestIndex();
+        return idx != null && idx.isUnique();
+    }
 }
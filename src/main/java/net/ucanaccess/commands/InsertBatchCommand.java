@@ -0,0 +1,126 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.commands;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ucanaccess.jdbc.UcanaccessSQLException;
+
+import com.healthmarketscience.jackcess.BatchUpdateException;
+import com.healthmarketscience.jackcess.ConstraintViolationException;
+import com.healthmarketscience.jackcess.Table;
+
+/**
+ * Consecutive inserts into the same table, written with a single <code>Table.addRows</code> call. The rows following
+ * one Jackcess rejects are added one by one, so that each <code>InsertCommand</code> keeps its own recovery. Rows
+ * with values in a spill file are not batched, so that they are read back one at a time.
+ */
+public class InsertBatchCommand implements ICommand {
+    private List<InsertCommand> inserts = new ArrayList<InsertCommand>();
+    // the rows added to the table, whether completed or not, are all deleted by a rollback
+    private int                 written;
+
+    public InsertBatchCommand(InsertCommand _first) {
+        inserts.add(_first);
+    }
+
+    public boolean add(InsertCommand ic) {
+        if (!ic.getTableName().equals(getTableName()) || ic.isSpilled() || inserts.get(0).isSpilled()) {
+            return false;
+        }
+        return inserts.add(ic);
+    }
+
+    public List<InsertCommand> getInserts() {
+        return inserts;
+    }
+
+    @Override
+    public String getExecId() {
+        return inserts.get(0).getExecId();
+    }
+
+    @Override
+    public String getTableName() {
+        return inserts.get(0).getTableName();
+    }
+
+    @Override
+    public TYPES getType() {
+        return TYPES.INSERT;
+    }
+
+    @Override
+    public IFeedbackAction persist() throws SQLException {
+        try {
+            List<Object[]> rows = new ArrayList<Object[]>(inserts.size());
+            for (InsertCommand ic : inserts) {
+                rows.add(ic.prepareRow());
+            }
+            Table table = inserts.get(0).getTable();
+            try {
+                table.addRows(rows);
+                written = rows.size();
+            } catch (BatchUpdateException e) {
+                written = e.getUpdateCount();
+            } catch (ConstraintViolationException e) {
+                written = 0;
+            }
+            final List<IFeedbackAction> feedbacks = new ArrayList<IFeedbackAction>();
+            for (int i = 0; i < inserts.size(); i++) {
+                InsertCommand ic = inserts.get(i);
+                if (i >= written) {
+                    ic.insertRow(ic.getTable(), rows.get(i));
+                    written++;
+                }
+                IFeedbackAction ib = ic.completeRow();
+                ic.releaseSpilledValues();
+                if (ib != null) {
+                    feedbacks.add(ib);
+                }
+            }
+            if (feedbacks.isEmpty()) {
+                return null;
+            }
+            return new IFeedbackAction() {
+                @Override
+                public void doAction(ICommand toChange) throws SQLException {
+                    for (IFeedbackAction ib : feedbacks) {
+                        ib.doAction(toChange);
+                    }
+                }
+            };
+        } catch (IOException e) {
+            rollback();
+            throw new UcanaccessSQLException(e);
+        } catch (SQLException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    @Override
+    public IFeedbackAction rollback() throws SQLException {
+        for (int i = written - 1; i >= 0; i--) {
+            inserts.get(i).rollback();
+        }
+        written = 0;
+        return null;
+    }
+}
@@ -41,11 +41,14 @@ import com.healthmarketscience.jackcess.complex.ComplexValueForeignKey;
 import com.healthmarketscience.jackcess.impl.ColumnImpl;
 
 public class InsertCommand implements ICommand {
-    private Database dbIO;
-    private String   execId;
-    private Object[] newRow;
-    private Table    table;
-    private String   tableName;
+    private List<? extends Column> columns;
+    private Database               dbIO;
+    private String                 execId;
+    private Object[]               memento;
+    private Object[]               newRow;
+    private SpillFile.Value[]      spilled;
+    private Table                  table;
+    private String                 tableName;
 
     public InsertCommand(String _tableName, Database _dbIo, Object[] _newRow, String _execId) {
         this.tableName = _tableName;
@@ -77,6 +80,77 @@ public class InsertCommand implements ICommand {
         return TYPES.INSERT;
     }
 
+    /**
+     * Returns the bytes taken by the binary and text values of the row.
+     */
+    public long getValuesSize() {
+        long size = 0;
+        for (Object value : newRow) {
+            size += sizeOf(value);
+        }
+        return size;
+    }
+
+    private static long sizeOf(Object _value) {
+        if (_value instanceof byte[]) {
+            return ((byte[]) _value).length;
+        }
+        if (_value instanceof String) {
+            return 2L * ((String) _value).length();
+        }
+        return 0;
+    }
+
+    /**
+     * Moves the binary and text values taking at least the given bytes to a spill file. They are read back when the
+     * row is written to the Access file, and again if it has to be rolled back. Returns the bytes moved.
+     */
+    public long spill(SpillFile _file, int _minSize) throws IOException {
+        long moved = 0;
+        for (int i = 0; i < newRow.length; ++i) {
+            long size = sizeOf(newRow[i]);
+            if (size >= _minSize) {
+                if (spilled == null) {
+                    // the row may be the one of HSQLDB
+                    newRow = newRow.clone();
+                    spilled = new SpillFile.Value[newRow.length];
+                }
+                spilled[i] = _file.write(newRow[i]);
+                newRow[i] = null;
+                moved += size;
+            }
+        }
+        return moved;
+    }
+
+    public boolean isSpilled() {
+        return spilled != null;
+    }
+
+    private void readSpilledValues() throws IOException {
+        if (spilled != null) {
+            for (int i = 0; i < spilled.length; ++i) {
+                if (spilled[i] != null) {
+                    newRow[i] = spilled[i].read();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the spilled values read by {@link #prepareRow()} once the row has been written.
+     */
+    void releaseSpilledValues() {
+        if (spilled != null) {
+            for (int i = 0; i < spilled.length; ++i) {
+                if (spilled[i] != null) {
+                    newRow[i] = null;
+                }
+            }
+            memento = null;
+        }
+    }
+
     private Object[] mementoRow() {
         Object[] clone = new Object[newRow.length];
         int i = 0;
@@ -97,7 +171,7 @@ public class InsertCommand implements ICommand {
 
     public void insertRow(Table _table, Object[] _row) throws IOException {
         try {
-            _table.addRow(newRow);
+            _table.addRow(_row);
         } catch (ConstraintViolationException e) {
             List<? extends Column> lc = _table.getColumns();
             boolean retry = false;
@@ -117,80 +191,113 @@ public class InsertCommand implements ICommand {
             ref.reloadDbIO();
             this.dbIO = ref.getDbIO();
             _table = this.dbIO.getTable(this.tableName);
-            _table.addRow(newRow);
+            _table.addRow(_row);
         }
     }
 
     @Override
     public IFeedbackAction persist() throws SQLException {
         try {
-            AutoNumberAction ana = null;
-            if (table == null) {
-                table = this.dbIO.getTable(this.tableName);
+            prepareRow();
+            insertRow(table, newRow);
+            IFeedbackAction ib = completeRow();
+            releaseSpilledValues();
+            return ib;
+        } catch (IOException e) {
+            throw new UcanaccessSQLException(e);
+        }
+    }
+
+    public Table getTable() throws IOException {
+        if (table == null) {
+            table = this.dbIO.getTable(this.tableName);
+        }
+        return table;
+    }
+
+    /**
+     * Turns the HSQLDB row into the one to be written by Jackcess.
+     */
+    Object[] prepareRow() throws IOException {
+        getTable();
+        readSpilledValues();
+        memento = mementoRow();
+        initComplex();
+        int j = 0;
+        columns = table.getColumns();
+        if (table.getDatabase().getColumnOrder().equals(ColumnOrder.DISPLAY)) {
+            Object[] newRowReorded = new Object[newRow.length];
+            Column[] cllReorded = new Column[newRow.length];
+            SpillFile.Value[] spilledReorded = spilled == null ? null : new SpillFile.Value[newRow.length];
+            for (Column cli : table.getColumns()) {
+                newRowReorded[cli.getColumnIndex()] = newRow[j];
+                memento[cli.getColumnIndex()] = newRow[j];
+                cllReorded[cli.getColumnIndex()] = cli;
+                if (spilled != null) {
+                    spilledReorded[cli.getColumnIndex()] = spilled[j];
+                }
+                j++;
             }
-            Object[] memento = mementoRow();
-            initComplex();
-            int j = 0;
-            List<? extends Column> lc = table.getColumns();
-            if (table.getDatabase().getColumnOrder().equals(ColumnOrder.DISPLAY)) {
-                Object[] newRowReorded = new Object[newRow.length];
-                Column[] cllReorded = new Column[newRow.length];
-                for (Column cli : table.getColumns()) {
-                    newRowReorded[cli.getColumnIndex()] = newRow[j];
-                    memento[cli.getColumnIndex()] = newRow[j];
-                    cllReorded[cli.getColumnIndex()] = cli;
-                    j++;
+            newRow = newRowReorded;
+            spilled = spilledReorded;
+            columns = Arrays.asList(cllReorded);
+        }
+        return newRow;
+    }
+
+    /**
+     * Feeds the values generated by Jackcess back to HSQLDB and writes the complex values, once the row has been
+     * added.
+     */
+    IFeedbackAction completeRow() throws IOException, SQLException {
+        AutoNumberAction ana = null;
+        int j = 0;
+        for (Column cli : columns) {
+            ColumnImpl cl = (ColumnImpl) cli;
+            if (cl.isAutoNumber() && !memento[j].equals(newRow[j])
+                    && !cl.getAutoNumberGenerator().getType().equals(DataType.COMPLEX_TYPE)) {
+
+                if (cl.getAutoNumberGenerator().getType().equals(DataType.LONG)) {
+                    AutoNumberManager.reset(cl, (Integer) newRow[j]);
                 }
-                newRow = newRowReorded;
-                lc = Arrays.asList(cllReorded);
+                ana = new AutoNumberAction(table, memento, newRow);
             }
 
-            insertRow(table, newRow);
-            j = 0;
-            for (Column cli : lc) {
-                ColumnImpl cl = (ColumnImpl) cli;
-                if (cl.isAutoNumber() && !memento[j].equals(newRow[j])
-                        && !cl.getAutoNumberGenerator().getType().equals(DataType.COMPLEX_TYPE)) {
-
-                    if (cl.getAutoNumberGenerator().getType().equals(DataType.LONG)) {
-                        AutoNumberManager.reset(cl, (Integer) newRow[j]);
+            if (cl.getType() == DataType.COMPLEX_TYPE) {
+                ComplexValueForeignKey rowFk = (ComplexValueForeignKey) cl.getRowValue(newRow);
+                if (memento[j] instanceof Attachment[]) {
+                    Attachment[] atcs = (Attachment[]) memento[j];
+                    for (Attachment atc : atcs) {
+                        rowFk.addAttachment(atc.getUrl(), atc.getName(), atc.getType(), atc.getData(),
+                                atc.getTimeStamp(), atc.getFlags());
+
+                    }
+                } else if (memento[j] instanceof SingleValue[]) {
+                    SingleValue[] vs = (SingleValue[]) memento[j];
+                    for (SingleValue v : vs) {
+                        rowFk.addMultiValue(v.getValue());
                     }
-                    ana = new AutoNumberAction(table, memento, newRow);
-                }
 
-                if (cl.getType() == DataType.COMPLEX_TYPE) {
-                    ComplexValueForeignKey rowFk = (ComplexValueForeignKey) cl.getRowValue(newRow);
-                    if (memento[j] instanceof Attachment[]) {
-                        Attachment[] atcs = (Attachment[]) memento[j];
-                        for (Attachment atc : atcs) {
-                            rowFk.addAttachment(atc.getUrl(), atc.getName(), atc.getType(), atc.getData(),
-                                    atc.getTimeStamp(), atc.getFlags());
-
-                        }
-                    } else if (memento[j] instanceof SingleValue[]) {
-                        SingleValue[] vs = (SingleValue[]) memento[j];
-                        for (SingleValue v : vs) {
-                            rowFk.addMultiValue(v.getValue());
-                        }
-
-                    } else if (memento[j] instanceof Version[]) {
-                        Version[] vs = (Version[]) memento[j];
-                        for (Version v : vs) {
-                            rowFk.addVersion(v.getValue(), v.getModifiedDate());
-                        }
+                } else if (memento[j] instanceof Version[]) {
+                    Version[] vs = (Version[]) memento[j];
+                    for (Version v : vs) {
+                        rowFk.addVersion(v.getValue(), v.getModifiedDate());
                     }
                 }
-                ++j;
             }
-            return ana;
-        } catch (IOException e) {
-            throw new UcanaccessSQLException(e);
+            ++j;
         }
+        return ana;
     }
 
     @Override
     public IFeedbackAction rollback() throws SQLException {
         if (this.table != null) {
+            try {
+                readSpilledValues();
+            } catch (IOException e) {
+                throw new UcanaccessSQLException(e);
+            }
             DeleteCommand dc = new DeleteCommand(this.table, new Persist2Jet().getRowPattern(this.newRow, this.table),
                     this.execId);
             return dc.persist();
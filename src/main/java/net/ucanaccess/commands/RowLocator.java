@@ -0,0 +1,95 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.commands;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.healthmarketscience.jackcess.Cursor;
+import com.healthmarketscience.jackcess.RowId;
+
+/**
+ * Finds the rows of a table without primary key or unique index during a single flush. From the second lookup on,
+ * the rows are indexed by their normalized contents, so that each command reaches its row through its
+ * <code>RowId</code> instead of scanning the table.
+ */
+public class RowLocator {
+    private Set<String>                    columnNames;
+    private int                            lookups;
+    private Map<List<Object>, List<RowId>> rowIds;
+
+    public boolean findRow(Cursor cur, ICursorCommand comm) throws IOException {
+        Map<String, Object> rowPattern = comm.getRowPattern();
+        if (this.lookups++ > 0 && (this.rowIds == null || !this.columnNames.equals(rowPattern.keySet()))) {
+            index(cur, rowPattern.keySet());
+        }
+        if (this.rowIds != null) {
+            List<RowId> candidates = this.rowIds.get(IndexSelector.fingerprint(rowPattern, this.columnNames));
+            if (candidates != null) {
+                Iterator<RowId> it = candidates.iterator();
+                while (it.hasNext()) {
+                    RowId rowId = it.next();
+                    if (cur.findRow(rowId) && comm.currentRowMatches(cur, cur.getCurrentRow(this.columnNames))) {
+                        it.remove();
+                        return true;
+                    }
+                }
+            }
+        }
+        cur.beforeFirst();
+        return cur.findNextRow(rowPattern);
+    }
+
+    public void reindex(Cursor cur, List<RowId> updated) throws IOException {
+        if (this.rowIds == null) {
+            return;
+        }
+        for (RowId rowId : updated) {
+            if (cur.findRow(rowId)) {
+                add(rowId, cur.getCurrentRow(this.columnNames));
+            }
+        }
+    }
+
+    static RowId currentRowId(Cursor cur) {
+        return cur.getSavepoint().getCurrentPosition().getRowId();
+    }
+
+    private void index(Cursor cur, Set<String> _columnNames) throws IOException {
+        this.columnNames = new LinkedHashSet<String>(_columnNames);
+        this.rowIds = new HashMap<List<Object>, List<RowId>>();
+        cur.beforeFirst();
+        while (cur.moveToNextRow()) {
+            add(currentRowId(cur), cur.getCurrentRow(this.columnNames));
+        }
+    }
+
+    private void add(RowId rowId, Map<String, Object> row) {
+        List<Object> fp = IndexSelector.fingerprint(row, this.columnNames);
+        List<RowId> ids = this.rowIds.get(fp);
+        if (ids == null) {
+            ids = new ArrayList<RowId>();
+            this.rowIds.put(fp, ids);
+        }
+        ids.add(rowId);
+    }
+}
@@ -0,0 +1,152 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.commands;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.healthmarketscience.jackcess.Column;
+
+/**
+ * Row pattern of a modified row, in the column order of the Jackcess table. The column names and their positions are
+ * held by a {@link Layout} shared by all the rows of a table, and the values by a plain array, so that a large
+ * transaction doesn't keep a hash map per modified row until it's committed.
+ */
+public final class RowPattern extends AbstractMap<String, Object> {
+    /**
+     * Column names of a Jackcess table, and the position of each column in the rows of the HSQLDB mirror table (-1 if
+     * it has none).
+     */
+    public static final class Layout {
+        private final String[]             names;
+        private final Map<String, Integer> positions;
+        private final int[]                sourceIndexes;
+
+        public Layout(List<? extends Column> _columns, int[] _sourceIndexes) {
+            this.names = new String[_columns.size()];
+            this.positions = new HashMap<String, Integer>();
+            for (int i = 0; i < names.length; i++) {
+                names[i] = _columns.get(i).getName();
+                positions.put(names[i], i);
+            }
+            this.sourceIndexes = _sourceIndexes;
+        }
+
+        public RowPattern newRowPattern(Object[] _sourceRow) {
+            Object[] values = new Object[names.length];
+            for (int i = 0; i < values.length; i++) {
+                int j = sourceIndexes[i];
+                values[i] = j < 0 ? null : _sourceRow[j];
+            }
+            return new RowPattern(this, values);
+        }
+    }
+
+    private final Layout   layout;
+    private final Object[] values;
+
+    private RowPattern(Layout _layout, Object[] _values) {
+        this.layout = _layout;
+        this.values = _values;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object _key) {
+        return layout.positions.containsKey(_key);
+    }
+
+    @Override
+    public Object get(Object _key) {
+        Integer i = layout.positions.get(_key);
+        return i == null ? null : values[i];
+    }
+
+    /**
+     * Replaces the value of a column of the table; columns can be neither added nor removed.
+     */
+    @Override
+    public Object put(String _key, Object _value) {
+        Integer i = layout.positions.get(_key);
+        if (i == null) {
+            throw new IllegalArgumentException("Column not found: " + _key);
+        }
+        Object old = values[i];
+        values[i] = _value;
+        return old;
+    }
+
+    /**
+     * Returns a copy of the values, in the column order of the table.
+     */
+    public Object[] toArray() {
+        return values.clone();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<Map.Entry<String, Object>>() {
+                    private int next;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < values.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, Object> next() {
+                        if (next >= values.length) {
+                            throw new NoSuchElementException();
+                        }
+                        final int i = next++;
+                        return new AbstractMap.SimpleEntry<String, Object>(layout.names[i], values[i]) {
+                            private static final long serialVersionUID = 1L;
+
+                            @Override
+                            public Object setValue(Object _value) {
+                                values[i] = _value;
+                                return super.setValue(_value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+}
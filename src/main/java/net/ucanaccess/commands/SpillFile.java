@@ -0,0 +1,99 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Temporary file holding the large values of the rows inserted by a pending transaction, so that they are not kept in
+ * memory until the transaction is committed. It's deleted when the transaction ends.
+ */
+public final class SpillFile {
+    /**
+     * Position of a value written to a spill file.
+     */
+    static final class Value {
+        private final SpillFile file;
+        private final long      offset;
+        private final int       length;
+        private final boolean   text;
+
+        private Value(SpillFile _file, long _offset, int _length, boolean _text) {
+            this.file = _file;
+            this.offset = _offset;
+            this.length = _length;
+            this.text = _text;
+        }
+
+        Object read() throws IOException {
+            return file.read(this);
+        }
+    }
+
+    private static final String CHARSET = "UTF-8";
+
+    private final File       file;
+    private RandomAccessFile raf;
+    private long             length;
+
+    public SpillFile() throws IOException {
+        this.file = File.createTempFile("ucanaccess", ".spill");
+        this.raf = new RandomAccessFile(this.file, "rw");
+    }
+
+    synchronized Value write(Object _value) throws IOException {
+        checkOpen();
+        boolean text = _value instanceof String;
+        byte[] bytes = text ? ((String) _value).getBytes(CHARSET) : (byte[]) _value;
+        raf.seek(length);
+        raf.write(bytes);
+        Value value = new Value(this, length, bytes.length, text);
+        length += bytes.length;
+        return value;
+    }
+
+    private synchronized Object read(Value _value) throws IOException {
+        checkOpen();
+        byte[] bytes = new byte[_value.length];
+        raf.seek(_value.offset);
+        raf.readFully(bytes);
+        return _value.text ? new String(bytes, CHARSET) : bytes;
+    }
+
+    private void checkOpen() throws IOException {
+        if (raf == null) {
+            throw new IOException("Spill file deleted: " + file);
+        }
+    }
+
+    public synchronized long length() {
+        return length;
+    }
+
+    public synchronized void delete() {
+        if (raf != null) {
+            try {
+                raf.close();
+            } catch (IOException e) {
+                // the file is deleted anyway
+            }
+            raf = null;
+        }
+        file.delete();
+    }
+}
@@ -46,8 +46,13 @@ public class UpdateCommand extends AbstractCursorCommand {
     private boolean                isRollbacking;
 
     public UpdateCommand(Table _table, Map<String, Object> _map, Object[] _modifiedRow, String _execId) {
+        this(_table, new IndexSelector(_table), _map, _modifiedRow, _execId);
+    }
+
+    public UpdateCommand(Table _table, IndexSelector _indexSelector, Map<String, Object> _map, Object[] _modifiedRow,
+            String _execId) {
         this.tableColumns = _table.getColumns();
-        this.indexSelector = new IndexSelector(_table);
+        this.indexSelector = _indexSelector;
         this.rowPattern = _map;
         this.modifiedRow = _modifiedRow;
         this.execId = _execId;
@@ -0,0 +1,194 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.converters;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+
+import com.healthmarketscience.jackcess.DataType;
+import com.healthmarketscience.jackcess.complex.ComplexValueForeignKey;
+
+import net.ucanaccess.complex.ComplexBase;
+import net.ucanaccess.jdbc.UcanaccessSQLException;
+
+/**
+ * Binds the values read by Jackcess to the mirror insert statement. A binder is resolved once per column from its
+ * Jackcess type, so that the loading calls the specialized PreparedStatement setters instead of converting each value
+ * and calling setObject.
+ */
+public enum ColumnBinder {
+    BYTE(Types.SMALLINT) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setInt(idx, SQLConverter.asUnsigned((Byte) value));
+        }
+    },
+    SHORT(Types.SMALLINT) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setShort(idx, (Short) value);
+        }
+    },
+    INTEGER(Types.INTEGER) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setInt(idx, (Integer) value);
+        }
+    },
+    FLOAT(Types.DOUBLE) {
+        // the decimal representation of the float is kept (e.g. 1.1 rather than 1.100000023841858)
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            float f = (Float) value;
+            ps.setDouble(idx, Float.isNaN(f) || Float.isInfinite(f) ? f : Double.parseDouble(Float.toString(f)));
+        }
+    },
+    DOUBLE(Types.DOUBLE) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setDouble(idx, (Double) value);
+        }
+    },
+    DECIMAL(Types.DECIMAL) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setBigDecimal(idx, (BigDecimal) value);
+        }
+    },
+    BOOLEAN(Types.BOOLEAN) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setBoolean(idx, (Boolean) value);
+        }
+    },
+    TIMESTAMP(Types.TIMESTAMP) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setTimestamp(idx,
+                    value instanceof Timestamp ? (Timestamp) value : new Timestamp(((Date) value).getTime()));
+        }
+    },
+    TEXT(Types.VARCHAR) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setString(idx, (String) value);
+        }
+    },
+    BINARY(Types.BLOB) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setBytes(idx, (byte[]) value);
+        }
+    },
+    /**
+     * Fallback for complex, calculated and unsupported columns: the value is converted according to its runtime class.
+     */
+    GENERIC(Types.OTHER) {
+        @Override
+        void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException {
+            ps.setObject(idx, value);
+        }
+
+        @Override
+        public Object decode(Object value) throws SQLException {
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Float) {
+                if (value.equals(Float.NaN)) {
+                    return value;
+                }
+                BigDecimal bd = new BigDecimal(value.toString());
+                return bd;
+            }
+            if (value instanceof Date && !(value instanceof Timestamp)) {
+                Timestamp ts = new Timestamp(((Date) value).getTime());
+                return ts;
+            }
+            if (value instanceof ComplexValueForeignKey) {
+                try {
+                    return ComplexBase.convert((ComplexValueForeignKey) value);
+                } catch (IOException e) {
+                    throw new UcanaccessSQLException(e);
+                }
+            }
+            if (value instanceof Byte) {
+                return SQLConverter.asUnsigned((Byte) value);
+            }
+            return value;
+        }
+    };
+
+    private final int sqlType;
+
+    private ColumnBinder(int _sqlType) {
+        this.sqlType = _sqlType;
+    }
+
+    abstract void bindValue(PreparedStatement ps, int idx, Object value) throws SQLException;
+
+    /**
+     * Converts the value read by Jackcess, whenever it can't be bound as is. It may access the Jackcess database, so it
+     * must be called by the thread reading the table.
+     */
+    public Object decode(Object value) throws SQLException {
+        return value;
+    }
+
+    public void bind(PreparedStatement ps, int idx, Object value) throws SQLException {
+        if (value == null) {
+            ps.setNull(idx, sqlType);
+        } else {
+            bindValue(ps, idx, value);
+        }
+    }
+
+    public static ColumnBinder forType(DataType _type) {
+        switch (_type) {
+        case BYTE:
+            return BYTE;
+        case INT:
+            return SHORT;
+        case LONG:
+            return INTEGER;
+        case FLOAT:
+            return FLOAT;
+        case DOUBLE:
+            return DOUBLE;
+        case MONEY:
+        case NUMERIC:
+            return DECIMAL;
+        case BOOLEAN:
+            return BOOLEAN;
+        case SHORT_DATE_TIME:
+            return TIMESTAMP;
+        case TEXT:
+        case MEMO:
+        case GUID:
+            return TEXT;
+        case BINARY:
+        case OLE:
+            return BINARY;
+        default:
+            return GENERIC;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.converters;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import net.ucanaccess.jdbc.UcanaccessConnection;
+
+/**
+ * Keeps, for the connections to a database, the names the SQL conversion has to treat specially: the table names
+ * containing white spaces, the escaped reserved words, and so on. The static helpers of {@link SQLConverter} use the
+ * context bound to the current thread or else the one of the context connection, so that the names of a database
+ * don't affect the conversions for another, nor discard their cached conversions.
+ */
+public final class ConversionContext {
+    // for the conversions not done on behalf of a database
+    private static final ConversionContext              DEFAULT           = new ConversionContext();
+    private static final ThreadLocal<ConversionContext> BOUND             = new ThreadLocal<ConversionContext>();
+    private static final int                            PATTERNS_CAPACITY = 1000;
+    private static final int                            TABLES_CAPACITY   = 1000;
+
+    final List<String>                 whiteSpacedTableNames        = new CopyOnWriteArrayList<String>();
+    volatile NameTrie                  whiteSpacedTableNamesTrie    = new NameTrie(whiteSpacedTableNames);
+    final Set<String>                  escapedIdentifiers           =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    final Set<String>                  alreadyEscapedIdentifiers    =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    final Map<String, String>          identifiersContainingKeyword = new ConcurrentHashMap<String, String>();
+    final Set<String>                  apostrophisedNames           =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final AtomicLong           generation                   = new AtomicLong();
+    // patterns built from the names of the database, compiled once per regex and released with it
+    private final Map<String, Pattern> patterns                     = lruMap(PATTERNS_CAPACITY);
+    private volatile Metadata          metadata                     = new Metadata();
+
+    /**
+     * The metadata the D-functions are converted with, kept across the statements until the schema changes.
+     */
+    static final class Metadata {
+        final Map<String, List<String>> columnNames    = new ConcurrentHashMap<String, List<String>>();
+        // keyed by the query the ambiguous column is looked up with, as it depends on the tables of the statement
+        final Map<String, String>       resolvedTables = lruMap(TABLES_CAPACITY);
+    }
+
+    private static <V> Map<String, V> lruMap(final int _capacity) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> _eldest) {
+                return size() > _capacity;
+            }
+        });
+    }
+
+    /**
+     * Returns the context bound to the current thread, or else the one of the context connection.
+     */
+    public static ConversionContext current() {
+        ConversionContext context = BOUND.get();
+        if (context != null) {
+            return context;
+        }
+        if (UcanaccessConnection.hasContext()) {
+            UcanaccessConnection conn = UcanaccessConnection.getCtxConnection();
+            if (conn != null) {
+                return conn.getConversionContext();
+            }
+        }
+        return DEFAULT;
+    }
+
+    /**
+     * Binds this context to the current thread and returns the one previously bound, to be given back to
+     * {@link #restore(ConversionContext)}.
+     */
+    public ConversionContext bind() {
+        ConversionContext previous = BOUND.get();
+        BOUND.set(this);
+        return previous;
+    }
+
+    public static void restore(ConversionContext _previous) {
+        if (_previous == null) {
+            BOUND.remove();
+        } else {
+            BOUND.set(_previous);
+        }
+    }
+
+    /**
+     * Returns a number that changes whenever the names of this context change.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    void changed() {
+        generation.incrementAndGet();
+    }
+
+    Metadata getMetadata() {
+        // the conversions not done on behalf of a database may be for any of them
+        return this == DEFAULT ? new Metadata() : metadata;
+    }
+
+    /**
+     * Discards the metadata looked up so far, to be called whenever the schema of the database changes. The lookups
+     * still running on the previous metadata don't affect the new one.
+     */
+    public void metadataChanged() {
+        metadata = new Metadata();
+    }
+
+    Pattern pattern(String regex) {
+        Pattern pattern = patterns.get(regex);
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            patterns.put(regex, pattern);
+        }
+        return pattern;
+    }
+}
@@ -23,6 +23,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -43,6 +44,22 @@ public class DFunction {
     private static final String       IDENTIFIER               = "(\\W)((?i)_)(\\W)";
     private static final List<String> DFUNCTIONLIST            =
             Arrays.asList("COUNT", "MAX", "MIN", "SUM", "AVG", "LAST", "FIRST", "LOOKUP");
+    // what all the D-function patterns start with, to skip the statements without any
+    private static final Pattern      DFUNCTION_CALL           =
+            Pattern.compile("(?i)D(COUNT|MAX|MIN|SUM|AVG|LAST|FIRST|LOOKUP)[\\s\n\r]*\\(");
+    private static final Pattern[]    WHERE_PATTERNS           = new Pattern[DFUNCTIONLIST.size()];
+    private static final Pattern[]    WHERE_DYNAMIC_PATTERNS   = new Pattern[DFUNCTIONLIST.size()];
+    private static final Pattern[]    NO_WHERE_PATTERNS        = new Pattern[DFUNCTIONLIST.size()];
+    static {
+        for (int i = 0; i < DFUNCTIONLIST.size(); i++) {
+            String fun = "D" + DFUNCTIONLIST.get(i);
+            WHERE_PATTERNS[i] = Pattern.compile(DFUNCTIONS_WHERE.replaceFirst("_", fun));
+            WHERE_DYNAMIC_PATTERNS[i] = Pattern.compile(DFUNCTIONS_WHERE_DYNAMIC.replaceFirst("_", fun));
+            NO_WHERE_PATTERNS[i] = Pattern.compile(DFUNCTIONS_NO_WHERE.replaceFirst("_", fun));
+        }
+    }
+    // the metadata of the database, shared by the statements converted with the same context
+    private final ConversionContext.Metadata metadata = ConversionContext.current().getMetadata();
 
     public DFunction(Connection _conn, String _sql) {
         this.conn = _conn;
@@ -51,18 +68,27 @@ public class DFunction {
 
     private String convertDFunctions() {
         String sql0 = sql;
+        if (!DFUNCTION_CALL.matcher(sql0).find()) {
+            return sql0;
+        }
         try {
             boolean hasFrom = FROM_PATTERN.matcher(sql).find();
             String init = hasFrom ? " (SELECT " : "";
             String end = hasFrom ? " ) " : "";
-            for (String s : DFUNCTIONLIST) {
-
-                String fun = "D" + s;
+            for (int i = 0; i < DFUNCTIONLIST.size(); i++) {
+                String s = DFUNCTIONLIST.get(i);
                 s = s.equalsIgnoreCase("lookup") ? " " : s;
-                sql0 = sql0.replaceAll(DFUNCTIONS_WHERE.replaceFirst("_", fun),
-                        init + s + "($1) FROM $2 WHERE $3     " + end);
-                sql0 = sql0.replaceAll(DFUNCTIONS_NO_WHERE.replaceFirst("_", fun), init + s + "($1) FROM $2    " + end);
-                Pattern dfd = Pattern.compile(DFUNCTIONS_WHERE_DYNAMIC.replaceFirst("_", fun));
+                // the criteria are a string literal, whose date literals are left to be converted here
+                Matcher where = WHERE_PATTERNS[i].matcher(sql0);
+                StringBuffer sbw = new StringBuffer();
+                while (where.find()) {
+                    where.appendReplacement(sbw, Matcher.quoteReplacement(init + s + "(" + where.group(1) + ") FROM "
+                            + where.group(2) + " WHERE " + SQLConverter.convertAccessDate0(where.group(3)) + "     "
+                            + end));
+                }
+                sql0 = where.appendTail(sbw).toString();
+                sql0 = NO_WHERE_PATTERNS[i].matcher(sql0).replaceAll(init + s + "($1) FROM $2    " + end);
+                Pattern dfd = WHERE_DYNAMIC_PATTERNS[i];
                 for (Matcher mtc = dfd.matcher(sql0); mtc.find(); mtc = dfd.matcher(sql0)) {
                     StringBuffer sb = new StringBuffer();
                     String g3 = mtc.group(3);
@@ -84,8 +110,7 @@ public class DFunction {
                             } else {
                                 tkn += " ";
                                 for (String cln : getColumnNames(tn.toUpperCase())) {
-                                    String oppn = IDENTIFIER.replaceFirst("_", cln);
-                                    Pattern op = Pattern.compile(oppn);
+                                    Pattern op = SQLConverter.identifierPattern(IDENTIFIER.replaceFirst("_", cln));
                                     Matcher mtcop = op.matcher(tkn);
                                     if (!mtcop.find()) {
                                         continue;
@@ -95,7 +120,7 @@ public class DFunction {
                                             && tkn.charAt(mtcop.start(1) - 1) == '.')) {
                                         continue;
                                     }
-                                    tkn = tkn.replaceAll(oppn,
+                                    tkn = op.matcher(tkn).replaceAll(
                                             pref.equals("[") ? resolveAmbiguosTableName(cln) + ".$1$2$3"
                                                     : "$1" + resolveAmbiguosTableName(cln) + ".$2$3");
                                 }
@@ -104,7 +129,7 @@ public class DFunction {
                         }
                     }
                     sb.append(end);
-                    sql0 = sql0.replaceFirst(DFUNCTIONS_WHERE_DYNAMIC.replaceFirst("_", fun), sb.toString());
+                    sql0 = dfd.matcher(sql0).replaceFirst(sb.toString());
                 }
             }
         } catch (SQLException e) {
@@ -113,11 +138,19 @@ public class DFunction {
     }
 
     private String resolveAmbiguosTableName(String identifier) {
+        String f4t = this.sql.replaceAll("[\r\n]", " ").replaceFirst(SELECT_FROM, "SELECT " + identifier + " FROM $2 ");
+        String tableN = metadata.resolvedTables.get(f4t);
+        if (tableN == null) {
+            tableN = resolveAmbiguosTableName0(identifier, f4t);
+            metadata.resolvedTables.put(f4t, tableN);
+        }
+        return tableN;
+    }
+
+    private String resolveAmbiguosTableName0(String identifier, String f4t) {
         Statement st = null;
         try {
-            String f4t = SQLConverter.convertSQL(
-                    this.sql.replaceAll("[\r\n]", " ").replaceFirst(SELECT_FROM, "SELECT " + identifier + " FROM $2 "))
-                    .getSql();
+            f4t = SQLConverter.convertSQL(f4t).getSql();
             st = conn.createStatement();
             ResultSetMetaData rsmd = st.executeQuery(f4t).getMetaData();
             String tableN = rsmd.getTableName(1);
@@ -138,7 +171,11 @@ public class DFunction {
     }
 
     private List<String> getColumnNames(String tableName) throws SQLException {
-        List<String> ar = new ArrayList<String>();
+        List<String> ar = metadata.columnNames.get(tableName);
+        if (ar != null) {
+            return ar;
+        }
+        ar = new ArrayList<String>();
         if (conn == null) {
             UcanaccessConnection conu = UcanaccessConnection.getCtxConnection();
             if (conu == null) {
@@ -148,9 +185,15 @@ public class DFunction {
         }
         DatabaseMetaData dbmd = conn.getMetaData();
         ResultSet rs = dbmd.getColumns(null, null, tableName, null);
-        while (rs.next()) {
-            ar.add(rs.getString("COLUMN_NAME"));
+        try {
+            while (rs.next()) {
+                ar.add(rs.getString("COLUMN_NAME"));
+            }
+        } finally {
+            rs.close();
         }
+        ar = Collections.unmodifiableList(ar);
+        metadata.columnNames.put(tableName, ar);
         return ar;
     }
 
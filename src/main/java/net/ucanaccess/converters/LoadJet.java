@@ -16,9 +16,9 @@ limitations under the License.
 package net.ucanaccess.converters;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -26,18 +26,34 @@ import java.sql.SQLException;
 import java.sql.SQLSyntaxErrorException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
-import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 
 import com.healthmarketscience.jackcess.Column;
 import com.healthmarketscience.jackcess.DataType;
@@ -48,27 +64,30 @@ import com.healthmarketscience.jackcess.PropertyMap;
 import com.healthmarketscience.jackcess.PropertyMap.Property;
 import com.healthmarketscience.jackcess.Row;
 import com.healthmarketscience.jackcess.Table;
-import com.healthmarketscience.jackcess.complex.ComplexValueForeignKey;
 import com.healthmarketscience.jackcess.impl.ColumnImpl;
 import com.healthmarketscience.jackcess.impl.ColumnImpl.AutoNumberGenerator;
 import com.healthmarketscience.jackcess.impl.IndexData;
 import com.healthmarketscience.jackcess.impl.IndexImpl;
+import com.healthmarketscience.jackcess.impl.PageChannel;
+import com.healthmarketscience.jackcess.impl.RowIdImpl;
+import com.healthmarketscience.jackcess.impl.TableImpl;
+import com.healthmarketscience.jackcess.impl.UsageMap;
 import com.healthmarketscience.jackcess.impl.query.QueryFormat;
 import com.healthmarketscience.jackcess.impl.query.QueryImpl;
 import com.healthmarketscience.jackcess.query.Query;
 
 import org.hsqldb.error.ErrorCode;
 
-import net.ucanaccess.complex.ComplexBase;
 import net.ucanaccess.converters.TypesMap.AccessType;
 import net.ucanaccess.ext.FunctionType;
 import net.ucanaccess.jdbc.DBReference;
+import net.ucanaccess.jdbc.Session;
 import net.ucanaccess.jdbc.UcanaccessSQLException;
 import net.ucanaccess.util.Logger;
 import net.ucanaccess.util.Logger.Messages;
 
 public class LoadJet {
-    private static int namingCounter = 0;
+    private static final AtomicInteger namingCounter = new AtomicInteger();
 
     private final class FunctionsLoader {
         private Set<String> functionsDefinition = new HashSet<String>();
@@ -264,12 +283,37 @@ public class LoadJet {
         private static final int    HSQL_FK_VIOLATION        = -ErrorCode.X_23503;
         private static final int    HSQL_UK_VIOLATION        = -ErrorCode.X_23505;
         private static final String SYSTEM_SCHEMA            = "SYS";
-        private static final int    DEFAULT_STEP             = 2000;
+        private static final int    PIPELINE_CHUNKS          = 3;
+        private static final int    PIPELINE_MEMORY_CAP      = 32 * 1024 * 1024;
         private List<String>        unresolvedTables         = new ArrayList<String>();
-        private List<String>        calculatedFieldsTriggers = new ArrayList<String>();
+        private Map<String, List<String>> calculatedFieldsTriggers = new HashMap<String, List<String>>();
         private LinkedList<String>  loadingOrder             = new LinkedList<String>();
         private Set<Column>         alreadyIndexed           = new HashSet<Column>();
         private Set<String>         readOnlyTables           = new HashSet<String>();
+        private Map<String, Set<String>> lazyReferences      = new HashMap<String, Set<String>>();
+        private Set<String>         lazyTables               =
+                Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        private boolean             deferredFKs;
+        private Map<String, Long>   fingerprints             = new HashMap<String, Long>();
+
+        private TablesLoader() {
+        }
+
+        /**
+         * Shares the loading state of the given loader, whose tables are loaded or refreshed through another
+         * connection.
+         */
+        private TablesLoader(TablesLoader _loaded) {
+            this.unresolvedTables = _loaded.unresolvedTables;
+            this.calculatedFieldsTriggers = _loaded.calculatedFieldsTriggers;
+            this.loadingOrder = _loaded.loadingOrder;
+            this.alreadyIndexed = _loaded.alreadyIndexed;
+            this.readOnlyTables = _loaded.readOnlyTables;
+            this.lazyReferences = _loaded.lazyReferences;
+            this.lazyTables = _loaded.lazyTables;
+            this.deferredFKs = _loaded.deferredFKs;
+            this.fingerprints = _loaded.fingerprints;
+        }
 
         private String commaSeparated(List<? extends Index.Column> columns, boolean escape) throws SQLException {
             String comma = "";
@@ -408,16 +452,7 @@ public class LoadJet {
                 }
                 String expr = getExpression(cl);
                 if (expr != null && constraints) {
-                    String tgrI = getCalculatedFieldTrigger(ntn, cl, true);
-                    String tgrU = getCalculatedFieldTrigger(ntn, cl, false);
-                    calculatedFieldsTriggers
-                            .add(String.format(tgrI, namingCounter++, SQLConverter.convertFormula(expr)));
-                    String uc = getUpdateConditions(cl);
-                    if (uc.length() > 0) {
-                        calculatedFieldsTriggers
-                                .add(String.format(tgrU, namingCounter++, uc, SQLConverter.convertFormula(expr)));
-                    }
-
+                    addCalculatedFieldTriggers(tn, ntn, cl, expr);
                 }
 
                 String htype = getHsqldbColumnType(cl);
@@ -453,6 +488,22 @@ public class LoadJet {
 
         }
 
+        private void addCalculatedFieldTriggers(String tn, String ntn, Column cl, String expr)
+                throws IOException, SQLException {
+            String tgrI = getCalculatedFieldTrigger(ntn, cl, true);
+            String tgrU = getCalculatedFieldTrigger(ntn, cl, false);
+            List<String> triggers = calculatedFieldsTriggers.get(tn);
+            if (triggers == null) {
+                triggers = new ArrayList<String>();
+                calculatedFieldsTriggers.put(tn, triggers);
+            }
+            triggers.add(String.format(tgrI, namingCounter.getAndIncrement(), SQLConverter.convertFormula(expr)));
+            String uc = getUpdateConditions(cl);
+            if (uc.length() > 0) {
+                triggers.add(String.format(tgrU, namingCounter.getAndIncrement(), uc, SQLConverter.convertFormula(expr)));
+            }
+        }
+
         private String getExpression(Column cl) throws IOException {
             PropertyMap map = cl.getProperties();
             Property exprp = map.get(PropertyMap.EXPRESSION_PROP);
@@ -559,7 +610,7 @@ public class LoadJet {
                             Logger.logParametricWarning(Messages.DEFAULT_VALUES_DELIMETERS, "" + defaulT, cl.getName(),
                                     cl.getTable().getName(), "" + cl.getLengthInUnits());
                         }
-                        arTrigger.add("CREATE TRIGGER DEFAULT_TRIGGER" + (namingCounter++) + " BEFORE INSERT ON " + ntn
+                        arTrigger.add("CREATE TRIGGER DEFAULT_TRIGGER" + namingCounter.getAndIncrement() + " BEFORE INSERT ON " + ntn
                                 + "  REFERENCING NEW ROW AS NEW FOR EACH ROW IF NEW." + ncn + " IS NULL THEN "
                                 + "SET NEW." + ncn + "= " + default4SQL + " ; END IF");
 
@@ -731,6 +782,9 @@ public class LoadJet {
                         }
                     }
                 }
+                if (bulkLoad && HSQL_UK_VIOLATION == e.getErrorCode()) {
+                    throw e;
+                }
                 Logger.logWarning(e.getMessage());
                 return;
             } catch (Exception e) {
@@ -763,27 +817,27 @@ public class LoadJet {
             loadedTables.add(tn + " READONLY");
         }
 
-        private void recreate(Table t, boolean systemTable, Row record, int errorCode)
-                throws SQLException, IOException {
-            String type = "";
+        private String constraintType(int errorCode) {
             switch (errorCode) {
             case HSQL_FK_VIOLATION:
-                type = "Foreign Key";
-                break;
+                return "Foreign Key";
             case HSQL_NOT_NULL:
-                type = "Not Null";
-                break;
+                return "Not Null";
             case HSQL_UK_VIOLATION:
-                type = "Unique";
-                break;
+                return "Unique";
             default:
-                break;
+                return "";
             }
-            Logger.logParametricWarning(Messages.CONSTRAINT, type, t.getName(), record.toString(), t.getName());
+        }
+
+        private void recreate(Table t, boolean systemTable, Row record, int errorCode)
+                throws SQLException, IOException {
+            Logger.logParametricWarning(Messages.CONSTRAINT, constraintType(errorCode), t.getName(), record.toString(),
+                    t.getName());
 
             dropTable(t, systemTable);
             createSyncrTable(t, systemTable, false);
-            if (errorCode != HSQL_FK_VIOLATION) {
+            if (errorCode != HSQL_FK_VIOLATION && !bulkLoad) {
                 loadTableFKs(t.getName(), false);
             }
             loadTableData(t, systemTable);
@@ -818,12 +872,90 @@ public class LoadJet {
         }
 
         private void loadTableData(Table t, boolean systemTable, boolean errorCheck) throws IOException, SQLException {
+            if (errorCheck) {
+                checkTableData(t, systemTable);
+                return;
+            }
+            BatchFailure failure = transferTableData(t, sqlInsert(t, columnNames(t), systemTable), conn);
+            if (failure == null) {
+                return;
+            }
+            int ec = failure.exception.getErrorCode();
+            if (lazyLoading && !systemTable && (ec == HSQL_NOT_NULL || ec == HSQL_FK_VIOLATION || ec == HSQL_UK_VIOLATION)) {
+                loadUnconstrained(t, failure);
+            } else if (ec == HSQL_NOT_NULL) {
+                dropTable(t, systemTable);
+                createSyncrTable(t, systemTable, true);
+                checkTableData(t, systemTable);
+            } else if (ec == HSQL_FK_VIOLATION || ec == HSQL_UK_VIOLATION) {
+                if (ec == HSQL_FK_VIOLATION) {
+                    Logger.logWarning(failure.exception.getMessage());
+                }
+                recreate(t, systemTable, failure.row, ec);
+            } else {
+                throw failure.exception;
+            }
+            conn.commit();
+        }
+
+        /**
+         * Lazy loading counterpart of {@link #recreate(Table, boolean, Row, int)}: the table can't be dropped once the
+         * views depending on it exist, so its constraints are dropped instead before reloading it read-only.
+         */
+        private void loadUnconstrained(Table t, BatchFailure failure) throws SQLException, IOException {
+            int ec = failure.exception.getErrorCode();
+            if (ec == HSQL_FK_VIOLATION) {
+                Logger.logWarning(failure.exception.getMessage());
+            }
+            Logger.logParametricWarning(Messages.CONSTRAINT, constraintType(ec), t.getName(),
+                    String.valueOf(failure.row), t.getName());
+            conn.rollback();
+            String ntn = escapeIdentifier(t.getName());
+            exec("DELETE FROM " + ntn, false);
+            dropConstraints(t, ntn);
+            conn.commit();
+            BatchFailure again = transferTableData(t, sqlInsert(t, columnNames(t), false), conn);
+            if (again != null) {
+                throw again.exception;
+            }
+            makeTableReadOnly(t, false);
+        }
+
+        private void dropConstraints(Table t, String ntn) throws SQLException, IOException {
+            List<String> constraints = new ArrayList<String>();
             PreparedStatement ps = null;
-            int step = errorCheck ? 1 : DEFAULT_STEP;
             try {
-                int i = 0;
-                Iterator<Row> it = t.iterator();
+                ps = conn.prepareStatement("SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                        + "WHERE TABLE_SCHEMA='PUBLIC' AND TABLE_NAME=? "
+                        + "AND CONSTRAINT_TYPE IN ('PRIMARY KEY','UNIQUE','FOREIGN KEY')");
+                ps.setString(1, hsqldbName(ntn));
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    constraints.add(rs.getString(1));
+                }
+            } finally {
+                if (ps != null) {
+                    ps.close();
+                }
+            }
+            for (String cn : constraints) {
+                exec("ALTER TABLE " + ntn + " DROP CONSTRAINT \"" + cn + "\" CASCADE", false);
+            }
+            for (Column cl : t.getColumns()) {
+                Object required = cl.getProperties().getValue(PropertyMap.REQUIRED_PROP);
+                if (required instanceof Boolean && (Boolean) required) {
+                    exec("ALTER TABLE " + ntn + " ALTER COLUMN " + escapeIdentifier(cl.getName()) + " SET NULL", false);
+                }
+            }
+        }
 
+        /**
+         * Inserts the rows one at a time, rolling each of them back, in order to find the record breaching a constraint.
+         */
+        private void checkTableData(Table t, boolean systemTable) throws IOException, SQLException {
+            PreparedStatement ps = null;
+            try {
+                Iterator<Row> it = t.iterator();
                 while (it.hasNext()) {
                     Row row = it.next();
                     List<Object> values = new ArrayList<Object>();
@@ -837,44 +969,299 @@ public class LoadJet {
                         values.add(value(obj));
                     }
                     execInsert(ps, values);
+                    try {
+                        ps.executeBatch();
+                    } catch (SQLException e) {
+                        int ec = e.getErrorCode();
+                        if (ec == HSQL_NOT_NULL || ec == HSQL_FK_VIOLATION || ec == HSQL_UK_VIOLATION) {
+                            if (ec == HSQL_FK_VIOLATION) {
+                                Logger.logWarning(e.getMessage());
+                            }
+                            recreate(t, systemTable, row, ec);
+                            return;
+                        }
+                        throw e;
+                    }
+                    conn.rollback();
+                }
+            } finally {
+                if (ps != null) {
+                    ps.close();
+                }
+            }
+        }
 
-                    if (errorCheck || (i > 0 && i % step == 0) || !it.hasNext()) {
-                        try {
-                            ps.executeBatch();
-                        } catch (SQLException e) {
-                            int ec = e.getErrorCode();
-                            if (!errorCheck && ec == HSQL_NOT_NULL) {
-                                dropTable(t, systemTable);
-                                createSyncrTable(t, systemTable, true);
-                                loadTableData(t, systemTable, true);
-                            } else {
-                                if (ec == HSQL_NOT_NULL || ec == HSQL_FK_VIOLATION || ec == HSQL_UK_VIOLATION) {
-                                    if (ec == HSQL_FK_VIOLATION) {
-                                        Logger.logWarning(e.getMessage());
-                                    }
-                                    recreate(t, systemTable, row, e.getErrorCode());
-                                } else {
-                                    throw e;
+        /**
+         * Streams the table rows into the target connection: a producer thread decodes the Jackcess rows into reusable
+         * chunks, whilst the calling thread binds them and executes the batches. Returns the batch failure, if any,
+         * without attempting any recovery.
+         */
+        private BatchFailure transferTableData(Table t, String insert, Connection target)
+                throws IOException, SQLException {
+            return transferTableData(t, insert, target, dbIO);
+        }
+
+        /**
+         * As {@link #transferTableData(Table, String, Connection)}, reading the table through the given Database
+         * instance, which the reads are synchronized on.
+         */
+        private BatchFailure transferTableData(Table t, String insert, Connection target, Database source)
+                throws IOException, SQLException {
+            ColumnBinder[] binders;
+            LoadTuner tuner;
+            synchronized (source) {
+                binders = columnBinders(t);
+                tuner = new LoadTuner(t.getName(), t.getColumns());
+            }
+            RowsProducer producer = new RowsProducer(t, binders, tuner, source);
+            PreparedStatement ps = null;
+            int i = 0;
+            try {
+                ps = target.prepareStatement(insert);
+                producer.start();
+                RowsChunk chunk;
+                while ((chunk = producer.next()) != null) {
+                    long start = System.nanoTime();
+                    for (int j = 0; j < chunk.size; j++) {
+                        Object[] values = chunk.rows[j];
+                        for (int k = 0; k < binders.length; k++) {
+                            binders[k].bind(ps, k + 1, values[k]);
+                        }
+                        ps.addBatch();
+                    }
+                    try {
+                        ps.executeBatch();
+                    } catch (SQLException e) {
+                        return new BatchFailure(e, chunk.lastRow);
+                    }
+                    if (tuner.batchExecuted(chunk.size, chunk.bytes, System.nanoTime() - start)) {
+                        target.commit();
+                    }
+                    i += chunk.size;
+                    producer.release(chunk);
+                }
+                target.commit();
+                tuner.loaded();
+                loadingStatistics.add(tuner.toString());
+            } finally {
+                producer.stop();
+                if (ps != null) {
+                    ps.close();
+                }
+            }
+            if (i != t.getRowCount()) {
+                Logger.logParametricWarning(Messages.ROW_COUNT, t.getName(), String.valueOf(t.getRowCount()),
+                        String.valueOf(i));
+            }
+            return null;
+        }
+
+        private List<String> columnNames(Table t) {
+            List<String> columnNames = new ArrayList<String>();
+            for (Column cl : t.getColumns()) {
+                columnNames.add(cl.getName());
+            }
+            return columnNames;
+        }
+
+        private ColumnBinder[] columnBinders(Table t) throws IOException {
+            List<? extends Column> columns = t.getColumns();
+            ColumnBinder[] binders = new ColumnBinder[columns.size()];
+            for (int i = 0; i < binders.length; i++) {
+                Column cl = columns.get(i);
+                binders[i] = getReturnType(cl) == null ? ColumnBinder.forType(cl.getType()) : ColumnBinder.GENERIC;
+            }
+            return binders;
+        }
+
+        private int estimateSize(Object value) {
+            if (value instanceof String) {
+                return 40 + 2 * ((String) value).length();
+            }
+            if (value instanceof byte[]) {
+                return 16 + ((byte[]) value).length;
+            }
+            if (value instanceof Object[]) {
+                return 16 + 64 * ((Object[]) value).length;
+            }
+            return 24;
+        }
+
+        private final class BatchFailure {
+            private final SQLException exception;
+            private final Row          row;
+
+            private BatchFailure(SQLException _exception, Row _row) {
+                this.exception = _exception;
+                this.row = _row;
+            }
+        }
+
+        private final class RowsChunk {
+            private final Object[][] rows;
+            private int              size;
+            private int              bytes;
+            private Row              lastRow;
+
+            private RowsChunk(int _capacity) {
+                this.rows = new Object[_capacity][];
+            }
+        }
+
+        /**
+         * Producer side of {@link TablesLoader#transferTableData(Table, String, Connection, Database)}. The Jackcess
+         * reads are synchronized on the Database instance, as it isn't thread-safe. The estimated size of the decoded rows in
+         * flight is capped by {@link TablesLoader#PIPELINE_MEMORY_CAP}, so that a large table can't fill the heap. The
+         * producer thread is never interrupted: an interrupted read would close the Jackcess file channel.
+         */
+        private final class RowsProducer implements Runnable {
+            private final RowsChunk                end    = new RowsChunk(0);
+            private final Table                    table;
+            private final Database                 source;
+            private final ColumnBinder[]           binders;
+            private final LoadTuner                tuner;
+            private final BlockingQueue<RowsChunk> free;
+            private final BlockingQueue<RowsChunk> filled;
+            private final Semaphore                budget = new Semaphore(PIPELINE_MEMORY_CAP);
+            private volatile boolean               stopped;
+            private Exception                      failure;
+            private Thread                         thread;
+
+            private RowsProducer(Table _table, ColumnBinder[] _binders, LoadTuner _tuner, Database _source) {
+                this.table = _table;
+                this.source = _source;
+                this.binders = _binders;
+                this.tuner = _tuner;
+                this.free = new ArrayBlockingQueue<RowsChunk>(PIPELINE_CHUNKS);
+                this.filled = new ArrayBlockingQueue<RowsChunk>(PIPELINE_CHUNKS + 1);
+                for (int i = 0; i < PIPELINE_CHUNKS; i++) {
+                    free.add(new RowsChunk(LoadTuner.MAX_BATCH_SIZE));
+                }
+            }
+
+            private void start() {
+                thread = new Thread(this, "UcanaccessLoader-" + table.getName());
+                thread.setDaemon(true);
+                thread.start();
+            }
+
+            @Override
+            public void run() {
+                try {
+                    Iterator<Row> it;
+                    synchronized (source) {
+                        it = table.iterator();
+                    }
+                    boolean more = true;
+                    while (more && !stopped) {
+                        RowsChunk chunk = free.take();
+                        int batchSize = tuner.getBatchSize();
+                        while (chunk.size < batchSize && chunk.bytes < PIPELINE_MEMORY_CAP / 2 && !stopped) {
+                            if (chunk.rows[chunk.size] == null) {
+                                chunk.rows[chunk.size] = new Object[binders.length];
+                            }
+                            Object[] values = chunk.rows[chunk.size];
+                            Row row;
+                            int bytes = 0;
+                            synchronized (source) {
+                                if (!it.hasNext()) {
+                                    more = false;
+                                    break;
+                                }
+                                row = it.next();
+                                if (row == null) {
+                                    continue;
+                                }
+                                int j = 0;
+                                for (Object obj : row.values()) {
+                                    values[j] = binders[j].decode(obj);
+                                    bytes += estimateSize(values[j++]);
                                 }
                             }
+                            bytes = Math.min(bytes, PIPELINE_MEMORY_CAP / 2);
+                            budget.acquire(bytes);
+                            chunk.bytes += bytes;
+                            chunk.lastRow = row;
+                            chunk.size++;
                         }
-                        if (errorCheck) {
-                            conn.rollback();
+                        if (chunk.size > 0) {
+                            filled.put(chunk);
                         } else {
-                            conn.commit();
+                            free.put(chunk);
                         }
                     }
-                    i++;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    failure = e;
+                } finally {
+                    filled.offer(end);
+                }
+            }
 
+            /**
+             * Returns the next chunk of decoded rows, or null once the table has been read.
+             */
+            private RowsChunk next() throws IOException, SQLException {
+                RowsChunk chunk;
+                try {
+                    chunk = filled.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UcanaccessSQLException(e);
+                }
+                if (chunk != end) {
+                    return chunk;
+                }
+                if (failure instanceof IOException) {
+                    throw (IOException) failure;
                 }
-                if (i != t.getRowCount() && step != 1) {
-                    Logger.logParametricWarning(Messages.ROW_COUNT, t.getName(), String.valueOf(t.getRowCount()),
-                            String.valueOf(i));
+                if (failure instanceof SQLException) {
+                    throw (SQLException) failure;
+                }
+                if (failure instanceof RuntimeException) {
+                    throw (RuntimeException) failure;
+                }
+                return null;
+            }
 
+            private void release(RowsChunk chunk) {
+                for (int i = 0; i < chunk.size; i++) {
+                    Arrays.fill(chunk.rows[i], null);
                 }
-            } finally {
-                if (ps != null) {
-                    ps.close();
+                budget.release(chunk.bytes);
+                chunk.size = 0;
+                chunk.bytes = 0;
+                chunk.lastRow = null;
+                free.offer(chunk);
+            }
+
+            /**
+             * Stops the producer and waits for it, so that the table cursor can be safely reused afterwards.
+             */
+            private void stop() {
+                stopped = true;
+                budget.release(PIPELINE_MEMORY_CAP);
+                List<RowsChunk> pending = new ArrayList<RowsChunk>();
+                filled.drainTo(pending);
+                for (RowsChunk chunk : pending) {
+                    if (chunk != end) {
+                        free.offer(chunk);
+                    }
+                }
+                if (thread == null) {
+                    return;
+                }
+                boolean interrupted = false;
+                while (thread.isAlive()) {
+                    try {
+                        thread.join();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
                 }
             }
         }
@@ -899,13 +1286,19 @@ public class LoadJet {
             }
         }
 
-        private void createCalculatedFieldsTriggers() {
-            for (String trigger : calculatedFieldsTriggers) {
-                try {
-                    exec(trigger, false);
+        private void createCalculatedFieldsTriggers(Collection<String> tableNames) {
+            for (String tn : tableNames) {
+                List<String> triggers = calculatedFieldsTriggers.get(tn);
+                if (triggers == null) {
+                    continue;
+                }
+                for (String trigger : triggers) {
+                    try {
+                        exec(trigger, false);
 
-                } catch (SQLException e) {
-                    Logger.logWarning(e.getMessage());
+                    } catch (SQLException e) {
+                        Logger.logWarning(e.getMessage());
+                    }
                 }
             }
         }
@@ -916,7 +1309,16 @@ public class LoadJet {
             if (t != null) {
                 for (Index idx : table.getIndexes()) {
                     if (!idx.isForeignKey() && (idx.isPrimaryKey() || idx.isUnique())) {
-                        loadIndex(idx, tn);
+                        try {
+                            loadIndex(idx, tn);
+                        } catch (SQLException e) {
+                            if (e.getErrorCode() != HSQL_UK_VIOLATION) {
+                                throw e;
+                            }
+                            Logger.logParametricWarning(Messages.CONSTRAINT, "Unique", tn, findDuplicate(idx, tn), tn);
+                            makeTableReadOnly(t, false);
+                            return;
+                        }
                     }
                 }
             }
@@ -958,7 +1360,7 @@ public class LoadJet {
 
         private void createIndexesUK() throws SQLException, IOException {
             for (String tn : dbIO.getTableNames()) {
-                if (!this.unresolvedTables.contains(tn)) {
+                if (!this.unresolvedTables.contains(tn) && !this.readOnlyTables.contains(tn)) {
                     this.loadTableIndexesUK(tn);
                     conn.commit();
                 }
@@ -967,7 +1369,7 @@ public class LoadJet {
 
         private void createIndexesNotUK() throws SQLException, IOException {
             for (String tn : dbIO.getTableNames()) {
-                if (!this.unresolvedTables.contains(tn)) {
+                if (!this.unresolvedTables.contains(tn) && !this.readOnlyTables.contains(tn)) {
                     this.loadTableIndexesNotUK(tn);
                     conn.commit();
                 }
@@ -985,7 +1387,11 @@ public class LoadJet {
         }
 
         private void createAutoFKs() throws SQLException, IOException {
-            for (String tn : dbIO.getTableNames()) {
+            createAutoFKs(dbIO.getTableNames());
+        }
+
+        private void createAutoFKs(Collection<String> tableNames) throws SQLException, IOException {
+            for (String tn : tableNames) {
                 if (!this.unresolvedTables.contains(tn)) {
                     try {
                         this.loadTableFKs(tn, true);
@@ -1000,6 +1406,10 @@ public class LoadJet {
         }
 
         private void loadTablesData() throws SQLException, IOException {
+            if (isParallelLoading()) {
+                loadTablesDataInParallel();
+                return;
+            }
             for (String tn : this.loadingOrder) {
                 if (!this.unresolvedTables.contains(tn)) {
                     UcanaccessTable t = new UcanaccessTable(dbIO.getTable(tn), tn);
@@ -1010,15 +1420,164 @@ public class LoadJet {
             }
         }
 
+        /**
+         * Loads the tables data using several worker threads, each one inserting through its own HSQLDB connection and
+         * reading through its own read-only Database instance, so that neither the inserts nor the reads wait for the
+         * other workers. The linked tables, and all of them if a custom opener is in use, are read through the shared
+         * Database instance and so one at a time. Tables that hit a constraint breach are emptied by their worker and
+         * then reloaded serially, so that the usual recovery paths (errorCheck reload and recreate) apply to them.
+         */
+        private void loadTablesDataInParallel() throws SQLException, IOException {
+            List<String> deferred = new ArrayList<String>();
+            Map<String, Future<Boolean>> results = new LinkedHashMap<String, Future<Boolean>>();
+            BlockingQueue<Connection> connections = new LinkedBlockingQueue<Connection>();
+            BlockingQueue<Database> readers = new LinkedBlockingQueue<Database>();
+            ExecutorService executor = Executors.newFixedThreadPool(loadingThreads, new ThreadFactory() {
+                private int counter = 0;
+
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread th = new Thread(r, "UcanaccessLoader-" + (++counter));
+                    th.setDaemon(true);
+                    return th;
+                }
+            });
+            try {
+                for (int i = 0; i < loadingThreads; i++) {
+                    connections.add(loadingReference.getHSQLDBConnection(loadingSession));
+                    Database reader = loadingReference.openReadOnly();
+                    if (reader != null) {
+                        readers.add(reader);
+                    }
+                }
+                for (String tn : this.loadingOrder) {
+                    if (!this.unresolvedTables.contains(tn)) {
+                        TableDataLoader tdl;
+                        // the workers reading through the shared instance may be running
+                        synchronized (dbIO) {
+                            UcanaccessTable t = new UcanaccessTable(dbIO.getTable(tn), tn);
+                            tdl = new TableDataLoader(t, schema(escapeIdentifier(tn), false),
+                                    sqlInsert(t, columnNames(t), false), connections, readers);
+                        }
+                        results.put(tn, executor.submit(tdl));
+                    }
+                }
+                for (Map.Entry<String, Future<Boolean>> entry : results.entrySet()) {
+                    if (!entry.getValue().get()) {
+                        deferred.add(entry.getKey());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UcanaccessSQLException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    throw (SQLException) cause;
+                }
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new UcanaccessSQLException(cause);
+            } finally {
+                executor.shutdownNow();
+                try {
+                    executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (Connection wconn : connections) {
+                    wconn.close();
+                }
+                for (Database reader : readers) {
+                    reader.close();
+                }
+            }
+            for (String tn : deferred) {
+                UcanaccessTable t = new UcanaccessTable(dbIO.getTable(tn), tn);
+                this.loadTableData(t, false);
+                conn.commit();
+            }
+        }
+
+        /**
+         * Worker side of {@link #loadTablesDataInParallel()}: returns false if the table breaches a constraint and has
+         * to be reloaded serially.
+         */
+        private boolean loadTableDataConcurrently(Table t, String ntn, String insert, Connection wconn, Database reader)
+                throws IOException, SQLException {
+            BatchFailure failure;
+            if (reader == null || t.getDatabase() != dbIO) {
+                failure = transferTableData(t, insert, wconn, dbIO);
+            } else {
+                failure = transferTableData(new UcanaccessTable(reader.getTable(t.getName()), t.getName()), insert,
+                        wconn, reader);
+            }
+            if (failure == null) {
+                return true;
+            }
+            int ec = failure.exception.getErrorCode();
+            if (ec != HSQL_NOT_NULL && ec != HSQL_FK_VIOLATION && ec != HSQL_UK_VIOLATION) {
+                throw failure.exception;
+            }
+            wconn.rollback();
+            Statement st = wconn.createStatement();
+            try {
+                st.executeUpdate("DELETE FROM " + ntn);
+            } finally {
+                st.close();
+            }
+            wconn.commit();
+            return false;
+        }
+
+        private final class TableDataLoader implements Callable<Boolean> {
+            private final Table                     table;
+            private final String                    ntn;
+            private final String                    insert;
+            private final BlockingQueue<Connection> connections;
+            private final BlockingQueue<Database>   readers;
+
+            private TableDataLoader(Table _table, String _ntn, String _insert, BlockingQueue<Connection> _connections,
+                    BlockingQueue<Database> _readers) {
+                this.table = _table;
+                this.ntn = _ntn;
+                this.insert = _insert;
+                this.connections = _connections;
+                this.readers = _readers;
+            }
+
+            @Override
+            public Boolean call() throws Exception {
+                Connection wconn = connections.take();
+                // none left if the database couldn't be opened once per worker
+                Database reader = readers.poll();
+                ConversionContext previous = context.bind();
+                try {
+                    return loadTableDataConcurrently(table, ntn, insert, wconn, reader);
+                } finally {
+                    ConversionContext.restore(previous);
+                    connections.add(wconn);
+                    if (reader != null) {
+                        readers.add(reader);
+                    }
+                }
+            }
+        }
+
         private void createTriggers() throws IOException, SQLException {
+            createTriggers(this.loadingOrder);
+        }
 
-            for (String tn : this.loadingOrder) {
+        private void createTriggers(Collection<String> tableNames) throws IOException, SQLException {
+
+            for (String tn : tableNames) {
                 if (!this.unresolvedTables.contains(tn) && !this.readOnlyTables.contains(tn)) {
                     UcanaccessTable t = new UcanaccessTable(dbIO.getTable(tn), tn);
                     createSyncrTriggers(t);
                 }
             }
-            createCalculatedFieldsTriggers();
+            createCalculatedFieldsTriggers(tableNames);
         }
 
         private void createSystemTables() throws SQLException, IOException {
@@ -1043,21 +1602,577 @@ public class LoadJet {
             }
         }
 
+        /**
+         * Foreign keys referencing a table made read-only during the data loading are skipped, as the serial loading
+         * drops them in cascade. A foreign key breached by the loaded data makes the referencing table read-only, like
+         * {@link #recreate(Table, boolean, Row, int)} does.
+         */
+        private void createFKsAfterLoading() throws SQLException, IOException {
+            createFKsAfterLoading(dbIO.getTableNames());
+        }
+
+        private void createFKsAfterLoading(Collection<String> tableNames) throws SQLException, IOException {
+            for (String tn : tableNames) {
+                if (this.unresolvedTables.contains(tn) || this.readOnlyTables.contains(tn)) {
+                    continue;
+                }
+                UcanaccessTable table = new UcanaccessTable(dbIO.getTable(tn), tn);
+                for (Index idxi : table.getIndexes()) {
+                    IndexImpl idx = (IndexImpl) idxi;
+                    if (!idx.isForeignKey() || idx.getReference().isPrimaryTable()) {
+                        continue;
+                    }
+                    String rtn = idx.getReferencedIndex().getTable().getName();
+                    if (idx.getTable().getName().equals(rtn) || this.readOnlyTables.contains(rtn)) {
+                        continue;
+                    }
+                    String orphan = findOrphan(idx, tn);
+                    if (orphan != null) {
+                        Logger.logParametricWarning(Messages.CONSTRAINT, "Foreign Key", tn, orphan, tn);
+                        makeTableReadOnly(table, false);
+                        break;
+                    }
+                    loadForeignKey(idx, tn);
+                }
+                conn.commit();
+            }
+        }
+
+        /**
+         * HSQLDB doesn't validate the existing rows when a foreign key is added, so they are checked here.
+         */
+        private String findOrphan(IndexImpl idx, String ctn) throws SQLException, IOException {
+            List<IndexData.ColumnDescriptor> cls = idx.getColumns();
+            List<IndexData.ColumnDescriptor> rcls = idx.getReferencedIndex().getColumns();
+            String ntn = escapeIdentifier(ctn);
+            String nrt = escapeIdentifier(idx.getReferencedIndex().getTable().getName());
+            if (ntn == null || nrt == null) {
+                return null;
+            }
+            StringBuffer select = new StringBuffer("SELECT ");
+            StringBuffer notNull = new StringBuffer();
+            StringBuffer join = new StringBuffer();
+            String comma = "";
+            String and = "";
+            for (int i = 0; i < cls.size(); i++) {
+                String cn = "C." + escapeIdentifier(cls.get(i).getName());
+                select.append(comma).append(cn);
+                notNull.append(and).append(cn).append(" IS NOT NULL");
+                join.append(and).append("R.").append(escapeIdentifier(rcls.get(i).getName())).append("=").append(cn);
+                comma = ",";
+                and = " AND ";
+            }
+            select.append(" FROM ").append(ntn).append(" C WHERE ").append(notNull);
+            select.append(" AND NOT EXISTS (SELECT 1 FROM ").append(nrt).append(" R WHERE ").append(join).append(")");
+            Statement st = null;
+            try {
+                st = conn.createStatement();
+                ResultSet rs = st.executeQuery(select.toString());
+                if (!rs.next()) {
+                    return null;
+                }
+                StringBuffer record = new StringBuffer("{");
+                comma = "";
+                for (int i = 0; i < cls.size(); i++) {
+                    record.append(comma).append(cls.get(i).getName()).append("=").append(rs.getObject(i + 1));
+                    comma = ",";
+                }
+                return record.append("}").toString();
+            } finally {
+                if (st != null) {
+                    st.close();
+                }
+            }
+        }
+
+        /**
+         * HSQLDB rejects a unique constraint breached by the existing rows, the first duplicate is looked up here for the
+         * warning.
+         */
+        private String findDuplicate(Index idx, String tn) throws SQLException, IOException {
+            String ntn = escapeIdentifier(tn);
+            if (ntn == null) {
+                return null;
+            }
+            StringBuffer cols = new StringBuffer();
+            StringBuffer notNull = new StringBuffer();
+            String comma = "";
+            String and = "";
+            for (Index.Column cd : idx.getColumns()) {
+                String cn = escapeIdentifier(cd.getName());
+                cols.append(comma).append(cn);
+                notNull.append(and).append(cn).append(" IS NOT NULL");
+                comma = ",";
+                and = " AND ";
+            }
+            Statement st = null;
+            try {
+                st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT " + cols + " FROM " + ntn + " WHERE " + notNull + " GROUP BY "
+                        + cols + " HAVING COUNT(*) > 1");
+                if (!rs.next()) {
+                    return null;
+                }
+                StringBuffer record = new StringBuffer("{");
+                comma = "";
+                int i = 0;
+                for (Index.Column cd : idx.getColumns()) {
+                    record.append(comma).append(cd.getName()).append("=").append(rs.getObject(++i));
+                    comma = ",";
+                }
+                return record.append("}").toString();
+            } finally {
+                if (st != null) {
+                    st.close();
+                }
+            }
+        }
+
+        /**
+         * With bulkLoad the tables are filled before any index or constraint exists, so that HSQLDB builds each of them
+         * once over the loaded rows instead of maintaining it row by row. Breaches are then detected while building
+         * the constraints and the offending tables are made read-only, as the row by row recovery does.
+         */
         private void loadTables() throws SQLException, IOException {
+            if (lazyLoading) {
+                createLazyTables();
+                return;
+            }
             createTables();
-            createIndexesUK();
+            if (!bulkLoad) {
+                createIndexesUK();
+            }
             boolean reorder = reorder();
-            if (reorder) {
+            boolean deferFKs = bulkLoad || isParallelLoading();
+            if (reorder && !deferFKs) {
                 createFKs();
             }
-            createIndexesNotUK();
+            if (!bulkLoad) {
+                createIndexesNotUK();
+            }
             loadTablesData();
+            if (bulkLoad) {
+                createIndexesUK();
+            }
+            if (deferFKs) {
+                createFKsAfterLoading();
+            }
+            if (bulkLoad) {
+                createIndexesNotUK();
+            }
             createTriggers();
-            if (!reorder) {
+            if (!reorder && !deferFKs) {
                 createFKs();
             }
             createAutoFKs();
             createSystemTables();
+            takeFingerprints();
+        }
+
+        /**
+         * Creates the tables, their constraints and indexes, but leaves them empty. The tables related through foreign
+         * keys are grouped, as each group is loaded at once: a parent loaded after its children would break the
+         * constraints, and a parent modified in a pending transaction would block the loading of its children.
+         */
+        private void createLazyTables() throws SQLException, IOException {
+            createTables();
+            createIndexesUK();
+            this.deferredFKs = !reorder();
+            if (!this.deferredFKs) {
+                createFKs();
+            }
+            createIndexesNotUK();
+            createSystemTables();
+            takeFingerprints();
+            for (Map.Entry<String, Set<String>> entry : groupByForeignKeys().entrySet()) {
+                String ntn = escapeIdentifier(entry.getKey());
+                this.lazyReferences.put(entry.getKey().toUpperCase(), entry.getValue());
+                if (ntn != null) {
+                    this.lazyReferences.put(unquote(ntn), entry.getValue());
+                }
+                this.lazyTables.add(entry.getKey());
+            }
+        }
+
+        /**
+         * Maps each table to the set of the tables connected to it through foreign keys, directly or not.
+         */
+        private Map<String, Set<String>> groupByForeignKeys() throws IOException {
+            Map<String, Set<String>> groups = new HashMap<String, Set<String>>();
+            for (String tn : this.loadingOrder) {
+                if (!this.unresolvedTables.contains(tn)) {
+                    Set<String> group = new HashSet<String>();
+                    group.add(tn);
+                    groups.put(tn, group);
+                }
+            }
+            for (String tn : this.loadingOrder) {
+                Set<String> group = groups.get(tn);
+                if (group == null) {
+                    continue;
+                }
+                for (Index idxi : new UcanaccessTable(dbIO.getTable(tn), tn).getIndexes()) {
+                    IndexImpl idx = (IndexImpl) idxi;
+                    if (!idx.isForeignKey()) {
+                        continue;
+                    }
+                    Set<String> other = groups.get(idx.getReferencedIndex().getTable().getName());
+                    if (other != null && other != group) {
+                        group.addAll(other);
+                        for (String otn : other) {
+                            groups.put(otn, group);
+                        }
+                    }
+                }
+            }
+            return groups;
+        }
+
+        /**
+         * Computes a checksum of the pages owned by each loaded table, its definition page included, so that the
+         * tables modified by another process can be told from the others.
+         */
+        private Map<String, Long> fingerprints() throws IOException {
+            Map<String, Long> fps = new HashMap<String, Long>();
+            for (String tn : this.loadingOrder) {
+                if (this.unresolvedTables.contains(tn)) {
+                    continue;
+                }
+                TableImpl t = (TableImpl) dbIO.getTable(tn);
+                PageChannel pc = t.getPageChannel();
+                ByteBuffer buffer = pc.createPageBuffer();
+                CRC32 crc = new CRC32();
+                UsageMap.PageCursor cursor = t.getOwnedPagesCursor();
+                for (int page = t.getTableDefPageNumber(); page != RowIdImpl.LAST_PAGE_NUMBER; page = cursor
+                        .getNextPage()) {
+                    pc.readPage(buffer, page);
+                    crc.update(buffer.array(), 0, buffer.limit());
+                }
+                fps.put(tn, crc.getValue());
+            }
+            return fps;
+        }
+
+        private void takeFingerprints() throws IOException, SQLException {
+            setFingerprints(fingerprints());
+            metadata.saveFingerprints(this.fingerprints);
+        }
+
+        // updated in place, as the map is shared with the loaders of the following refreshes
+        private void setFingerprints(Map<String, Long> fps) {
+            this.fingerprints.clear();
+            this.fingerprints.putAll(fps);
+        }
+
+        /**
+         * Rebuilds the loading state of a mirror kept from a previous session, then refreshes the tables changed since
+         * its fingerprints were saved. Returns false if the mirror can't be reused.
+         */
+        private boolean reuseTables() throws SQLException, IOException {
+            setFingerprints(metadata.getFingerprints());
+            for (String tn : dbIO.getTableNames()) {
+                if (!tn.startsWith("~")) {
+                    if (!this.fingerprints.containsKey(tn)) {
+                        return false;
+                    }
+                    this.loadingOrder.add(tn);
+                }
+            }
+            if (this.loadingOrder.size() != this.fingerprints.size()) {
+                return false;
+            }
+            reorder();
+            Set<String> readOnly = new HashSet<String>();
+            Statement st = null;
+            try {
+                st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.SYSTEM_TABLES "
+                        + "WHERE TABLE_SCHEM='PUBLIC' AND READ_ONLY");
+                while (rs.next()) {
+                    readOnly.add(rs.getString(1));
+                }
+                Pattern generated = Pattern.compile("(?:EXPR|DEFAULT_TRIGGER)(\\d+)");
+                rs = st.executeQuery("SELECT TRIGGER_NAME FROM INFORMATION_SCHEMA.TRIGGERS");
+                while (rs.next()) {
+                    Matcher mtc = generated.matcher(rs.getString(1));
+                    if (mtc.matches()) {
+                        int next = Integer.parseInt(mtc.group(1)) + 1;
+                        int current = namingCounter.get();
+                        while (current < next && !namingCounter.compareAndSet(current, next)) {
+                            current = namingCounter.get();
+                        }
+                    }
+                }
+            } finally {
+                if (st != null) {
+                    st.close();
+                }
+            }
+            for (String tn : this.loadingOrder) {
+                String ntn = escapeIdentifier(tn);
+                if (readOnly.contains(hsqldbName(ntn))) {
+                    this.readOnlyTables.add(tn);
+                }
+                for (Column cl : dbIO.getTable(tn).getColumns()) {
+                    String expr = getExpression(cl);
+                    if (expr != null) {
+                        addCalculatedFieldTriggers(tn, ntn, cl, expr);
+                    }
+                }
+            }
+            return refreshTables();
+        }
+
+        /**
+         * Reloads in place the tables changed since the last load, together with the tables related to them through
+         * foreign keys. The triggers of those tables are dropped while their rows are replaced, then recreated.
+         */
+        private boolean refreshTables() throws SQLException, IOException {
+            for (String tn : dbIO.getTableNames()) {
+                if (!this.fingerprints.containsKey(tn) && !this.unresolvedTables.contains(tn) && !tn.startsWith("~")) {
+                    return false;
+                }
+            }
+            for (String tn : this.fingerprints.keySet()) {
+                if (dbIO.getTable(tn) == null) {
+                    return false;
+                }
+            }
+            Map<String, Long> current = fingerprints();
+            Set<String> changed = new HashSet<String>();
+            for (Map.Entry<String, Long> entry : current.entrySet()) {
+                if (!entry.getValue().equals(this.fingerprints.get(entry.getKey()))
+                        && !this.lazyTables.contains(entry.getKey())) {
+                    changed.add(entry.getKey());
+                }
+            }
+            if (changed.isEmpty()) {
+                setFingerprints(current);
+                metadata.saveFingerprints(current);
+                conn.commit();
+                return true;
+            }
+            if (hasPendingTransactions()) {
+                return false;
+            }
+            Map<String, Set<String>> groups = groupByForeignKeys();
+            Set<String> toReload = new HashSet<String>();
+            for (String tn : changed) {
+                toReload.addAll(groups.get(tn));
+            }
+            List<String> tns = new ArrayList<String>();
+            for (String tn : this.loadingOrder) {
+                if (toReload.contains(tn)) {
+                    tns.add(tn);
+                }
+            }
+            List<String> reversed = new ArrayList<String>(tns);
+            Collections.reverse(reversed);
+            for (String tn : reversed) {
+                String ntn = escapeIdentifier(tn);
+                dropTriggers(ntn);
+                if (this.readOnlyTables.contains(tn)) {
+                    exec("SET TABLE " + ntn + " READONLY FALSE ", false);
+                }
+                exec("DELETE FROM " + ntn, false);
+            }
+            for (String tn : tns) {
+                UcanaccessTable t = new UcanaccessTable(dbIO.getTable(tn), tn);
+                BatchFailure failure = transferTableData(t, sqlInsert(t, columnNames(t), false), conn);
+                if (failure != null) {
+                    throw failure.exception;
+                }
+                if (this.readOnlyTables.contains(tn)) {
+                    exec("SET TABLE " + escapeIdentifier(tn) + " READONLY TRUE ", false);
+                }
+            }
+            conn.commit();
+            createTriggers(tns);
+            setFingerprints(current);
+            metadata.saveFingerprints(current);
+            conn.commit();
+            loadingStatistics.add("REFRESH: " + tns.size() + " of " + current.size() + " tables reloaded " + tns);
+            return true;
+        }
+
+        /**
+         * The tables can't be refreshed while another session holds row locks on them: that session would have to
+         * wait for the refresh to complete before committing.
+         */
+        private boolean hasPendingTransactions() throws SQLException {
+            Statement st = null;
+            try {
+                st = conn.createStatement();
+                ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SYSTEM_SESSIONS "
+                        + "WHERE TRANSACTION_SIZE > 0 AND SESSION_ID <> SESSION_ID()");
+                return rs.next() && rs.getInt(1) > 0;
+            } finally {
+                if (st != null) {
+                    st.close();
+                }
+            }
+        }
+
+        private void dropTriggers(String ntn) throws SQLException {
+            List<String> triggers = new ArrayList<String>();
+            PreparedStatement ps = null;
+            try {
+                ps = conn.prepareStatement("SELECT TRIGGER_NAME FROM INFORMATION_SCHEMA.TRIGGERS "
+                        + "WHERE EVENT_OBJECT_SCHEMA='PUBLIC' AND EVENT_OBJECT_TABLE=?");
+                ps.setString(1, hsqldbName(ntn));
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    triggers.add(rs.getString(1));
+                }
+            } finally {
+                if (ps != null) {
+                    ps.close();
+                }
+            }
+            for (String trigger : triggers) {
+                exec("DROP TRIGGER \"" + trigger + "\"", false);
+            }
+        }
+
+        /**
+         * Pivot views are built from the data, so the tables behind the crosstab queries can't wait.
+         */
+        private void loadCrossTabSources() throws SQLException, IOException {
+            Map<String, Query> queries = new HashMap<String, Query>();
+            for (Query q : dbIO.getQueries()) {
+                queries.put(q.getName().toUpperCase(), q);
+            }
+            for (Query q : queries.values()) {
+                if (q.getType().equals(Query.Type.CROSS_TAB)) {
+                    Set<String> tables = new HashSet<String>();
+                    addQuerySources(q, queries, tables, new HashSet<String>());
+                    loadTablesLazily(tables);
+                }
+            }
+        }
+
+        private void addQuerySources(Query q, Map<String, Query> queries, Set<String> tables, Set<String> visited) {
+            if (!visited.add(q.getName().toUpperCase())) {
+                return;
+            }
+            String sql;
+            try {
+                sql = q.toSQLString();
+            } catch (Exception e) {
+                return;
+            }
+            tables.addAll(referencedLazyTables(sql));
+            for (String id : identifiers(sql)) {
+                Query dep = queries.get(id);
+                if (dep != null) {
+                    addQuerySources(dep, queries, tables, visited);
+                }
+            }
+        }
+
+        /**
+         * Maps the views and the procedures to the tables they read, so that referencing them loads those tables.
+         */
+        private void registerLazyDependencies() throws SQLException {
+            Map<String, Set<String>> uses = new HashMap<String, Set<String>>();
+            Statement st = null;
+            try {
+                st = conn.createStatement();
+                String[] usages = { "SELECT VIEW_NAME, TABLE_NAME FROM INFORMATION_SCHEMA.VIEW_TABLE_USAGE "
+                        + "WHERE VIEW_SCHEMA='PUBLIC'",
+                        "SELECT ROUTINE_NAME, TABLE_NAME FROM INFORMATION_SCHEMA.ROUTINE_TABLE_USAGE "
+                                + "WHERE ROUTINE_SCHEMA='PUBLIC'" };
+                for (String usage : usages) {
+                    ResultSet rs = st.executeQuery(usage);
+                    while (rs.next()) {
+                        String object = rs.getString(1).toUpperCase();
+                        Set<String> used = uses.get(object);
+                        if (used == null) {
+                            used = new HashSet<String>();
+                            uses.put(object, used);
+                        }
+                        used.add(rs.getString(2).toUpperCase());
+                    }
+                    rs.close();
+                }
+                Map<String, Set<String>> objects = new HashMap<String, Set<String>>();
+                for (String object : uses.keySet()) {
+                    objects.put(object, new HashSet<String>());
+                }
+                boolean changed = true;
+                while (changed) {
+                    changed = false;
+                    for (Map.Entry<String, Set<String>> entry : uses.entrySet()) {
+                        Set<String> tables = objects.get(entry.getKey());
+                        for (String used : entry.getValue()) {
+                            Set<String> dep = objects.containsKey(used) ? objects.get(used) : lazyReferences.get(used);
+                            if (dep != null && tables != dep && tables.addAll(dep)) {
+                                changed = true;
+                            }
+                        }
+                    }
+                }
+                this.lazyReferences.putAll(objects);
+                ResultSet rs = st.executeQuery(
+                        "SELECT TABLE_NAME, ESCAPED_TABLE_NAME FROM UCA_METADATA.TABLES WHERE TYPE='VIEW'");
+                while (rs.next()) {
+                    Set<String> tables = objects.get(unquote(rs.getString(2)));
+                    if (tables != null) {
+                        this.lazyReferences.put(rs.getString(1).toUpperCase(), tables);
+                    }
+                }
+                rs.close();
+            } finally {
+                if (st != null) {
+                    st.close();
+                }
+            }
+        }
+
+        private Set<String> referencedLazyTables(String sql) {
+            Set<String> tables = new HashSet<String>();
+            if (this.lazyTables.isEmpty()) {
+                return tables;
+            }
+            for (String id : identifiers(sql)) {
+                Set<String> referenced = this.lazyReferences.get(id);
+                if (referenced != null) {
+                    for (String tn : referenced) {
+                        if (this.lazyTables.contains(tn)) {
+                            tables.add(tn);
+                        }
+                    }
+                }
+            }
+            return tables;
+        }
+
+        /**
+         * Loads the given tables, in the loading order, then completes them like the eager loading does. They are
+         * considered loaded even if an error occurs, as a retry would duplicate the rows already committed.
+         */
+        private void loadTablesLazily(Set<String> tables) throws SQLException, IOException {
+            List<String> tns = new ArrayList<String>();
+            for (String tn : this.loadingOrder) {
+                if (tables.contains(tn) && this.lazyTables.contains(tn)) {
+                    tns.add(tn);
+                }
+            }
+            try {
+                for (String tn : tns) {
+                    UcanaccessTable t = new UcanaccessTable(dbIO.getTable(tn), tn);
+                    this.loadTableData(t, false);
+                    conn.commit();
+                }
+                if (this.deferredFKs) {
+                    createFKsAfterLoading(tns);
+                }
+                createTriggers(tns);
+                createAutoFKs(tns);
+                conn.commit();
+            } finally {
+                this.lazyTables.removeAll(tns);
+            }
         }
 
         private void createSystemSchema() throws SQLException {
@@ -1073,14 +2188,18 @@ public class LoadJet {
 
         private PreparedStatement sqlInsert(Table t, Map<String, Object> row, boolean systemTable)
                 throws IOException, SQLException {
+            return conn.prepareStatement(sqlInsert(t, row.keySet(), systemTable));
+        }
+
+        private String sqlInsert(Table t, Collection<String> columnNames, boolean systemTable)
+                throws IOException, SQLException {
             String tn = t.getName();
             String ntn = schema(escapeIdentifier(tn), systemTable);
             String comma = "";
             StringBuffer sbI = new StringBuffer(" INSERT INTO ").append(ntn).append(" (");
             StringBuffer sbE = new StringBuffer(" VALUES( ");
-            Set<String> se = row.keySet();
             comma = "";
-            for (String cn : se) {
+            for (String cn : columnNames) {
                 sbI.append(comma).append(escapeIdentifier(cn));
                 sbE.append(comma).append(" ? ");
                 comma = ",";
@@ -1089,35 +2208,11 @@ public class LoadJet {
             sbE.append(")");
             sbI.append(sbE);
 
-            return conn.prepareStatement(sbI.toString());
+            return sbI.toString();
         }
 
         private Object value(Object value) throws SQLException {
-            if (value == null) {
-                return null;
-            }
-            if (value instanceof Float) {
-                if (value.equals(Float.NaN)) {
-                    return value;
-                }
-                BigDecimal bd = new BigDecimal(value.toString());
-                return bd;
-            }
-            if (value instanceof Date && !(value instanceof Timestamp)) {
-                Timestamp ts = new Timestamp(((Date) value).getTime());
-                return ts;
-            }
-            if (value instanceof ComplexValueForeignKey) {
-                try {
-                    return ComplexBase.convert((ComplexValueForeignKey) value);
-                } catch (IOException e) {
-                    throw new UcanaccessSQLException(e);
-                }
-            }
-            if (value instanceof Byte) {
-                return SQLConverter.asUnsigned((Byte) value);
-            }
-            return value;
+            return ColumnBinder.GENERIC.decode(value);
         }
 
     }
@@ -1413,22 +2508,29 @@ public class LoadJet {
         }
     }
 
-    private Connection      conn;
-    private Database        dbIO;
-    private boolean         err;
-    private FunctionsLoader functionsLoader   = new FunctionsLoader();
-    private List<String>    loadedIndexes     = new ArrayList<String>();
-    private List<String>    loadedQueries     = new ArrayList<String>();
-    private List<String>    loadedProcedures  = new ArrayList<String>();
-    private List<String>    loadedTables      = new ArrayList<String>();
-    private LogsFlusher     logsFlusher       = new LogsFlusher();
-    private TablesLoader    tablesLoader      = new TablesLoader();
-    private TriggersLoader  triggersGenerator = new TriggersLoader();
-    private ViewsLoader     viewsLoader       = new ViewsLoader();
-    private boolean         sysSchema;
-    private boolean         ff1997;
-    private boolean         skipIndexes;
-    private Metadata        metadata;
+    private final Connection   conn;
+    private final Database     dbIO;
+    private boolean            err;
+    private FunctionsLoader    functionsLoader   = new FunctionsLoader();
+    private List<String>       loadedIndexes     = new ArrayList<String>();
+    private List<String>       loadedQueries     = new ArrayList<String>();
+    private List<String>       loadedProcedures  = new ArrayList<String>();
+    private List<String>       loadedTables      = new ArrayList<String>();
+    private List<String>       loadingStatistics = Collections.synchronizedList(new ArrayList<String>());
+    private LogsFlusher        logsFlusher       = new LogsFlusher();
+    private final TablesLoader tablesLoader;
+    private TriggersLoader     triggersGenerator = new TriggersLoader();
+    private ViewsLoader        viewsLoader       = new ViewsLoader();
+    private boolean            sysSchema;
+    private boolean            ff1997;
+    private boolean            skipIndexes;
+    private int                loadingThreads;
+    private boolean            bulkLoad;
+    private boolean            lazyLoading;
+    private DBReference        loadingReference;
+    private Session            loadingSession;
+    private final Metadata     metadata;
+    private ConversionContext  context           = ConversionContext.current();
 
     public LoadJet(Connection _conn, Database _dbIo) throws SQLException {
         this.conn = _conn;
@@ -1439,6 +2541,28 @@ public class LoadJet {
             // Logger.logWarning(e.getMessage());
         }
         this.metadata = new Metadata(_conn);
+        this.tablesLoader = new TablesLoader();
+    }
+
+    /**
+     * Creates a loader for a single operation on the tables of the given one, through the given connection and
+     * database: the loading state is shared, the loader of the whole mirror is left untouched.
+     */
+    private LoadJet(LoadJet _loaded, Connection _conn, Database _dbIo) throws SQLException {
+        this.conn = _conn;
+        this.dbIO = _dbIo;
+        this.ff1997 = _loaded.ff1997;
+        this.sysSchema = _loaded.sysSchema;
+        this.skipIndexes = _loaded.skipIndexes;
+        this.loadingThreads = _loaded.loadingThreads;
+        this.bulkLoad = _loaded.bulkLoad;
+        this.lazyLoading = _loaded.lazyLoading;
+        this.loadingReference = _loaded.loadingReference;
+        this.loadingSession = _loaded.loadingSession;
+        this.loadingStatistics = _loaded.loadingStatistics;
+        this.context = _loaded.context;
+        this.metadata = new Metadata(_conn);
+        this.tablesLoader = new TablesLoader(_loaded.tablesLoader);
     }
 
     public void loadDefaultValues(Table t) throws SQLException, IOException {
@@ -1540,30 +2664,112 @@ public class LoadJet {
         return sqlw;
     }
 
+    /**
+     * Returns, for each loaded table, the rows count, the timings and the batch sizes chosen by the {@link LoadTuner}.
+     */
+    public List<String> getLoadingStatistics() {
+        return Collections.unmodifiableList(new ArrayList<String>(this.loadingStatistics));
+    }
+
     public void resetFunctionsDefault() throws SQLException {
         this.functionsLoader.resetDefault();
     }
 
     public void loadDB() throws SQLException, IOException {
+        ConversionContext previous = this.context.bind();
         try {
             this.functionsLoader.loadMappedFunctions();
             this.tablesLoader.loadTables();
+            if (lazyLoading) {
+                this.tablesLoader.loadCrossTabSources();
+            }
             this.viewsLoader.loadViews();
+            if (lazyLoading) {
+                this.tablesLoader.registerLazyDependencies();
+            }
             conn.commit();
             SQLConverter.cleanEscaped();
         } finally {
-            Logger.log("Loaded Tables:");
-            logsFlusher.dumpList(this.loadedTables);
-            Logger.log("Loaded Queries:");
-            logsFlusher.dumpList(this.loadedQueries);
-            Logger.log("Loaded Procedures:");
-            logsFlusher.dumpList(this.loadedProcedures);
-            Logger.log("Loaded Indexes:");
-            logsFlusher.dumpList(this.loadedIndexes, true);
+            logLoading();
+            conn.close();
+            ConversionContext.restore(previous);
+        }
+    }
+
+    /**
+     * Returns the tables referenced by the given SQL statement which haven't been loaded yet (lazy loading only).
+     */
+    public Set<String> getUnloadedTables(String _sql) {
+        return this.tablesLoader.referencedLazyTables(_sql);
+    }
+
+    /**
+     * Loads the given tables which haven't been loaded yet through a new HSQLDB connection, the callers must serialize
+     * this method with any other access to the Access database.
+     */
+    public void loadLazily(Set<String> _tables, Database _dbIo) throws SQLException, IOException {
+        LoadJet lj = new LoadJet(this, this.loadingReference.getHSQLDBConnection(this.loadingSession), _dbIo);
+        ConversionContext previous = this.context.bind();
+        try {
+            lj.tablesLoader.loadTablesLazily(_tables);
+            lj.conn.commit();
+            SQLConverter.cleanEscaped();
+        } finally {
+            lj.logLoading();
+            lj.conn.close();
+            ConversionContext.restore(previous);
+        }
+    }
+
+    /**
+     * Reloads, through the given connection, the tables modified by another process since the mirror was loaded or
+     * last refreshed. Returns false if the mirror has to be fully reloaded instead. The callers must serialize this
+     * method with any other access to the Access database.
+     */
+    public boolean refreshTables(Connection _conn, Database _dbIo) throws SQLException, IOException {
+        LoadJet lj = new LoadJet(this, _conn, _dbIo);
+        ConversionContext previous = this.context.bind();
+        try {
+            boolean refreshed = lj.tablesLoader.refreshTables();
+            SQLConverter.cleanEscaped();
+            return refreshed;
+        } finally {
+            lj.logLoading();
+            _conn.close();
+            ConversionContext.restore(previous);
+        }
+    }
+
+    /**
+     * Reuses the mirror kept from a previous session, reloading only the tables changed since then. Returns false if
+     * the mirror has to be fully reloaded instead.
+     */
+    public boolean reuseMirror() throws SQLException, IOException {
+        ConversionContext previous = this.context.bind();
+        try {
+            boolean reused = this.tablesLoader.reuseTables();
+            SQLConverter.cleanEscaped();
+            return reused;
+        } finally {
+            logLoading();
             conn.close();
+            ConversionContext.restore(previous);
         }
     }
 
+    private void logLoading() {
+        Logger.log("Loaded Tables:");
+        logsFlusher.dumpList(this.loadedTables);
+        Logger.log("Loaded Queries:");
+        logsFlusher.dumpList(this.loadedQueries);
+        Logger.log("Loaded Procedures:");
+        logsFlusher.dumpList(this.loadedProcedures);
+        Logger.log("Loaded Indexes:");
+        logsFlusher.dumpList(this.loadedIndexes, true);
+        Logger.log("Loading Statistics:");
+        logsFlusher.dumpList(new ArrayList<String>(this.loadingStatistics), true);
+    }
+
     public void synchronisationTriggers(String tableName, boolean hasAutoNumberColumn, boolean hasAppendOnly)
             throws SQLException {
         this.triggersGenerator.synchronisationTriggers(tableName, hasAutoNumberColumn, hasAppendOnly);
@@ -1587,6 +2793,13 @@ public class LoadJet {
         }
     }
 
+    /**
+     * Sets the context the names of the loaded database are registered in, by default the one of the current thread.
+     */
+    public void setConversionContext(ConversionContext _context) {
+        this.context = _context;
+    }
+
     public void setSysSchema(boolean _sysSchema) {
         this.sysSchema = _sysSchema;
 
@@ -1597,4 +2810,78 @@ public class LoadJet {
 
     }
 
+    /**
+     * Enables the parallel loading of the tables data: each worker thread gets its own HSQLDB connection from the given
+     * reference.
+     */
+    public void setLoadingThreads(int _loadingThreads, DBReference _ref, Session _session) {
+        this.loadingThreads = _loadingThreads;
+        this.loadingReference = _ref;
+        this.loadingSession = _session;
+    }
+
+    /**
+     * Defers the creation of indexes and constraints after the tables data have been loaded.
+     */
+    public void setBulkLoad(boolean _bulkLoad) {
+        this.bulkLoad = _bulkLoad;
+    }
+
+    /**
+     * Loads the tables data on demand: each table is loaded, through a new connection from the given reference, when
+     * a statement first references it.
+     */
+    public void setLazyLoading(boolean _lazyLoading, DBReference _ref, Session _session) {
+        this.lazyLoading = _lazyLoading;
+        this.loadingReference = _ref;
+        this.loadingSession = _session;
+    }
+
+    private static String hsqldbName(String ntn) {
+        return ntn.startsWith("\"") ? ntn.substring(1, ntn.length() - 1) : ntn.toUpperCase();
+    }
+
+    private static String unquote(String name) {
+        if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+            return name.substring(1, name.length() - 1).toUpperCase();
+        }
+        return name.toUpperCase();
+    }
+
+    /**
+     * Splits a SQL statement into upper-cased identifiers, delimited ones included. String literals aren't skipped, so
+     * that the table names passed to domain aggregate functions are found too.
+     */
+    private static List<String> identifiers(String sql) {
+        List<String> ids = new ArrayList<String>();
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            char close = c == '[' ? ']' : c == '"' || c == '`' ? c : 0;
+            if (close != 0) {
+                int end = sql.indexOf(close, i + 1);
+                if (end < 0) {
+                    end = len;
+                }
+                ids.add(sql.substring(i + 1, end).toUpperCase());
+                i = end + 1;
+            } else if (Character.isLetterOrDigit(c) || c == '_' || c == '$') {
+                int start = i;
+                while (i < len && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '_'
+                        || sql.charAt(i) == '$')) {
+                    i++;
+                }
+                ids.add(sql.substring(start, i).toUpperCase());
+            } else {
+                i++;
+            }
+        }
+        return ids;
+    }
+
+    private boolean isParallelLoading() {
+        return this.loadingThreads > 1 && this.loadingReference != null;
+    }
+
 }
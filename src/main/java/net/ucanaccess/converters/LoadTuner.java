@@ -0,0 +1,166 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.converters;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.healthmarketscience.jackcess.Column;
+import com.healthmarketscience.jackcess.DataType;
+
+/**
+ * Chooses the batch size and the commit cadence used to load a table into the mirror. The first batch size is derived
+ * from the estimated row width, the following ones from the measured row width and insert throughput: narrow tables get
+ * larger batches, wide or LOB-heavy tables smaller ones.
+ */
+public class LoadTuner {
+    public static final int     MIN_BATCH_SIZE     = 50;
+    public static final int     MAX_BATCH_SIZE     = 20000;
+    private static final long   TARGET_BATCH_BYTES = 1024 * 1024;
+    private static final long   COMMIT_BYTES       = 8 * 1024 * 1024;
+    private static final double MIN_SCALE          = 0.25;
+    private static final double MAX_SCALE          = 4;
+    private final String        tableName;
+    private volatile int        batchSize;
+    private final int           initialBatchSize;
+    private double              rowBytes;
+    private double              scale              = 1;
+    private int                 direction          = 1;
+    private double              lastThroughput;
+    private long                uncommittedBytes;
+    private long                rows;
+    private long                bytes;
+    private long                nanos;
+    private int                 batches;
+    private int                 commits;
+    private int                 minBatchSize       = Integer.MAX_VALUE;
+    private int                 maxBatchSize;
+
+    public LoadTuner(String _tableName, List<? extends Column> _columns) {
+        this.tableName = _tableName;
+        long width = 0;
+        for (Column cl : _columns) {
+            width += estimateSize(cl);
+        }
+        this.rowBytes = Math.max(width, 1);
+        this.batchSize = batchSize();
+        this.initialBatchSize = this.batchSize;
+    }
+
+    private static int estimateSize(Column cl) {
+        DataType dt = cl.getType();
+        if (dt == null) {
+            return 32;
+        }
+        switch (dt) {
+        case BOOLEAN:
+        case BYTE:
+        case INT:
+        case LONG:
+            return 16;
+        case FLOAT:
+        case DOUBLE:
+            return 24;
+        case SHORT_DATE_TIME:
+            return 32;
+        case MONEY:
+        case NUMERIC:
+            return 48;
+        case GUID:
+            return 120;
+        case TEXT:
+            return 40 + 2 * Math.min(cl.getLengthInUnits(), 64);
+        case MEMO:
+            return 1024;
+        case OLE:
+        case BINARY:
+            return 8192;
+        default:
+            return 256;
+        }
+    }
+
+    private int batchSize() {
+        long size = (long) (TARGET_BATCH_BYTES * scale / rowBytes);
+        return (int) Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, size));
+    }
+
+    /**
+     * Returns the number of rows for the next batch.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Records an executed batch and adapts the next batch size.
+     *
+     * @return true if the rows loaded since the last commit should now be committed.
+     */
+    public synchronized boolean batchExecuted(int _rows, long _bytes, long _nanos) {
+        if (_rows <= 0) {
+            return false;
+        }
+        rows += _rows;
+        bytes += _bytes;
+        nanos += _nanos;
+        batches++;
+        minBatchSize = Math.min(minBatchSize, _rows);
+        maxBatchSize = Math.max(maxBatchSize, _rows);
+        rowBytes = Math.max(1, bytes / (double) rows);
+        double throughput = _rows / (double) Math.max(_nanos, 1);
+        if (lastThroughput > 0 && throughput < lastThroughput * 0.9) {
+            direction = -direction;
+        }
+        lastThroughput = throughput;
+        scale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, direction > 0 ? scale * 1.25 : scale * 0.8));
+        batchSize = batchSize();
+        uncommittedBytes += _bytes;
+        if (uncommittedBytes >= COMMIT_BYTES) {
+            uncommittedBytes = 0;
+            commits++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records the final commit of the table.
+     */
+    public synchronized void loaded() {
+        if (uncommittedBytes > 0) {
+            uncommittedBytes = 0;
+            commits++;
+        }
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized int getCommits() {
+        return commits;
+    }
+
+    @Override
+    public synchronized String toString() {
+        long ms = TimeUnit.NANOSECONDS.toMillis(nanos);
+        return tableName + ": " + rows + " rows in " + ms + " ms (" + (ms > 0 ? rows * 1000 / ms : rows)
+                + " rows/s), row width ~" + Math.round(rowBytes) + " bytes, batch size " + initialBatchSize
+                + " initially, " + (batches > 0 ? minBatchSize + "-" + maxBatchSize : "0") + " used, " + batches
+                + " batches, " + commits + " commits";
+    }
+}
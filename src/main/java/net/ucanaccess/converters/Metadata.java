@@ -21,7 +21,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Metadata {
 
@@ -34,6 +36,9 @@ public class Metadata {
             + "				UCA_METADATA.COLUMNS(COLUMN_ID INTEGER IDENTITY, COLUMN_NAME LONGVARCHAR,ESCAPED_COLUMN_NAME LONGVARCHAR, "
             + "				ORIGINAL_TYPE VARCHAR(20),COLUMN_DEF  LONGVARCHAR,IS_GENERATEDCOLUMN VARCHAR(3),TABLE_ID INTEGER, UNIQUE(TABLE_ID,COLUMN_NAME) )";
 
+    private static final String FINGERPRINTS =
+            "CREATE MEMORY TABLE   UCA_METADATA.FINGERPRINTS(TABLE_NAME LONGVARCHAR PRIMARY KEY, FINGERPRINT BIGINT) ";
+
     private static final String PROP =
             "CREATE MEMORY TABLE   UCA_METADATA.PROP(NAME LONGVARCHAR PRIMARY KEY, MAX_LEN INTEGER,DEFAULT_VALUE VARCHAR(20),DESCRIPTION LONGVARCHAR) ";
 
@@ -55,7 +60,12 @@ public class Metadata {
             { "sysschema", 10, "false", "see ucanaccess web site" },
             { "skipindexes", 10, "false", "see ucanaccess web site" },
             { "preventreloading", 10, "false", "see ucanaccess web site" },
-            { "concatnulls", 10, "false", "see ucanaccess web site" }
+            { "concatnulls", 10, "false", "see ucanaccess web site" },
+            { "loadingthreads", 10, "1", "see ucanaccess web site" },
+            { "bulkload", 10, "false", "see ucanaccess web site" },
+            { "lazyloading", 10, "false", "see ucanaccess web site" },
+            { "writebehind", 10, "false", "see ucanaccess web site" },
+            { "spillthreshold", 10, "0", "see ucanaccess web site" }
 
     };
 
@@ -122,6 +132,7 @@ public class Metadata {
             st.execute(COLUMNS);
             st.execute(FK);
             st.execute(COLUMNS_VIEW);
+            st.execute(FINGERPRINTS);
             loadProp();
         } finally {
             if (st != null) {
@@ -151,6 +162,45 @@ public class Metadata {
 
     }
 
+    public void saveFingerprints(Map<String, Long> fingerprints) throws SQLException {
+        Statement st = null;
+        PreparedStatement ps = null;
+        try {
+            st = conn.createStatement();
+            st.execute("DELETE FROM UCA_METADATA.FINGERPRINTS");
+            ps = conn.prepareStatement("INSERT INTO UCA_METADATA.FINGERPRINTS(TABLE_NAME, FINGERPRINT) VALUES(?,?)");
+            for (Map.Entry<String, Long> entry : fingerprints.entrySet()) {
+                ps.setString(1, entry.getKey());
+                ps.setLong(2, entry.getValue());
+                ps.execute();
+            }
+        } finally {
+            if (st != null) {
+                st.close();
+            }
+            if (ps != null) {
+                ps.close();
+            }
+        }
+    }
+
+    public Map<String, Long> getFingerprints() throws SQLException {
+        Statement st = null;
+        try {
+            st = conn.createStatement();
+            ResultSet rs = st.executeQuery("SELECT TABLE_NAME, FINGERPRINT FROM UCA_METADATA.FINGERPRINTS");
+            Map<String, Long> fingerprints = new HashMap<String, Long>();
+            while (rs.next()) {
+                fingerprints.put(rs.getString(1), rs.getLong(2));
+            }
+            return fingerprints;
+        } finally {
+            if (st != null) {
+                st.close();
+            }
+        }
+    }
+
     public Integer newTable(String name, String escaped, Types type) throws SQLException {
         PreparedStatement ps = null;
         try {
@@ -0,0 +1,72 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.converters;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A prefix tree of names, so that all of them can be looked for at a position of a string in a single walk. Like a
+ * {@code (?i)} regular expression, it ignores the case of ASCII letters only.
+ */
+final class NameTrie {
+    static final class Node {
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+        private boolean                    name;
+
+        Node next(char _c) {
+            return children.get(fold(_c));
+        }
+
+        /**
+         * Returns whether the path to this node spells a whole name.
+         */
+        boolean isName() {
+            return name;
+        }
+    }
+
+    private final Node root = new Node();
+
+    NameTrie(Collection<String> _names) {
+        for (String name : _names) {
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                Character c = fold(name.charAt(i));
+                Node child = node.children.get(c);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.name = true;
+        }
+    }
+
+    Node getRoot() {
+        return root;
+    }
+
+    boolean isEmpty() {
+        return root.children.isEmpty();
+    }
+
+    private static char fold(char _c) {
+        return _c >= 'A' && _c <= 'Z' ? (char) (_c + ('a' - 'A')) : _c;
+    }
+}
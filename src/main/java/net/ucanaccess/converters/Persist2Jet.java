@@ -28,13 +28,13 @@ import java.util.GregorianCalendar;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.healthmarketscience.jackcess.Column;
 import com.healthmarketscience.jackcess.ColumnBuilder;
@@ -59,6 +59,7 @@ import org.hsqldb.types.JavaObjectData;
 import org.hsqldb.types.TimestampData;
 
 import net.ucanaccess.commands.InsertCommand;
+import net.ucanaccess.commands.RowPattern;
 import net.ucanaccess.complex.ComplexBase;
 import net.ucanaccess.complex.UnsupportedValue;
 import net.ucanaccess.converters.TypesMap.AccessType;
@@ -71,7 +72,7 @@ import net.ucanaccess.jdbc.UcanaccessSQLException.ExceptionMessages;
 import net.ucanaccess.util.HibernateSupport;
 
 public class Persist2Jet {
-    private static HashMap<String, List<String>> columnNamesCache = new HashMap<String, List<String>>();
+    private static Map<String, List<String>> columnNamesCache = new ConcurrentHashMap<String, List<String>>();
     static {
         DBReference.addOnReloadRefListener(new OnReloadReferenceListener() {
 
@@ -83,20 +84,31 @@ public class Persist2Jet {
     }
 
     public Map<String, Object> getRowPattern(Object[] varr, Table t) throws SQLException {
+        return getRowPatternLayout(t).newRowPattern(varr);
+    }
+
+    /**
+     * Returns the layout of the row patterns of a table: for each column of the Jackcess table, the position of its
+     * value in the rows of the HSQLDB table, or -1 if it has none.
+     */
+    public RowPattern.Layout getRowPatternLayout(Table t) throws SQLException {
         String ntn = SQLConverter.basicEscapingIdentifier(t.getName()).toUpperCase();
-        Map<String, Object> vl = new LinkedHashMap<String, Object>();
+        Map<String, Integer> positions = new HashMap<String, Integer>();
         int i = 0;
         Iterator<String> it = getColumnNames(ntn).iterator();
         while (it.hasNext()) {
-            vl.put(it.next(), varr[i++]);
+            positions.put(it.next(), i++);
         }
         if (i == 0) {
             throw new SQLException("Cannot read table's metadata");
         }
-        return escapeIdentifiers(vl, t);
+        return new RowPattern.Layout(t.getColumns(), escapeIdentifiers(positions, t));
     }
 
     public Object[] getValues(Map<String, Object> rowPattern, Table t) throws SQLException {
+        if (rowPattern instanceof RowPattern) {
+            return ((RowPattern) rowPattern).toArray();
+        }
         Object[] values = new Object[rowPattern.size()];
         int i = 0;
         for (Object obj : rowPattern.values()) {
@@ -189,9 +201,10 @@ public class Persist2Jet {
         }
     }
 
-    private Map<String, Object> escapeIdentifiers(Map<String, Object> map, Table t) {
+    private int[] escapeIdentifiers(Map<String, Integer> map, Table t) {
         List<? extends Column> colums = t.getColumns();
-        Map<String, Object> vl = new LinkedHashMap<String, Object>();
+        int[] indexes = new int[colums.size()];
+        int j = 0;
         for (Column cl : colums) {
             String key = cl.getName();
             String keyu = key.toUpperCase();
@@ -199,9 +212,10 @@ public class Persist2Jet {
             if (!map.containsKey(ekey) && map.containsKey(ekey.substring(1, ekey.length() - 1))) {
                 ekey = ekey.substring(1, ekey.length() - 1);
             }
-            vl.put(key, map.get(ekey));
+            Integer i = map.get(ekey);
+            indexes[j++] = i == null ? -1 : i;
         }
-        return vl;
+        return indexes;
     }
 
     private String getNormalizedName(String name, Map<String, String> columnMap) {
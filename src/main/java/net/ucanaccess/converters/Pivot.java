@@ -17,16 +17,22 @@ limitations under the License.
 package net.ucanaccess.converters;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -48,12 +54,17 @@ public class Pivot {
             Pattern.compile("((?i)SUM|MAX|MIN|FIRST|LAST|AVG|COUNT|STDEV|VAR)\\s*\\((.*)\\)");
     private static final Pattern                   PIVOT_CN         = Pattern.compile("[\"'#](.*)[\"'#]");
     private static final String                    PIVOT_GROUP_BY   = "(?i)GROUP\\s*(?i)BY";
+    private static final String                    SOURCE_TABLES    =
+            "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.VIEW_TABLE_USAGE WHERE VIEW_NAME = ?";
     private String                                 aggregateFun;
     private Connection                             conn;
     private boolean                                pivotInCondition = true;
     private String                                 originalQuery;
-    private static final Map<String, String>       PIVOT_MAP        = new HashMap<String, String>();
-    private static final Map<String, List<String>> PREPARE_MAP      = new HashMap<String, List<String>>();
+    private static final Map<String, String>       PIVOT_MAP        =
+            Collections.synchronizedMap(new HashMap<String, String>());
+    private static final Map<String, List<String>> PREPARE_MAP      =
+            Collections.synchronizedMap(new HashMap<String, List<String>>());
+    private static final Map<String, Pattern>      NAME_PATTERNS    = new ConcurrentHashMap<String, Pattern>();
 
     public Pivot(Connection _conn) {
         this.conn = _conn;
@@ -89,8 +100,16 @@ public class Pivot {
 
     public static void checkAndRefreshPivot(String currSql, UcanaccessConnection conu) {
 
-        for (String name : PIVOT_MAP.keySet()) {
-            Pattern ptrn = Pattern.compile("(\\W)(?i)" + name + "(\\W)");
+        List<String> names;
+        synchronized (PIVOT_MAP) {
+            names = new ArrayList<String>(PIVOT_MAP.keySet());
+        }
+        for (String name : names) {
+            Pattern ptrn = NAME_PATTERNS.get(name);
+            if (ptrn == null) {
+                ptrn = Pattern.compile("(\\W)(?i)" + name + "(\\W)");
+                NAME_PATTERNS.put(name, ptrn);
+            }
             Matcher mtc = ptrn.matcher(currSql);
             if (mtc.find()) {
                 Statement st = null;
@@ -101,6 +120,12 @@ public class Pivot {
                     if (conu == null) {
                         return;
                     }
+                    // the columns depend on the values found in the source tables
+                    PivotCache cache = conu.getPivotCache();
+                    if (cache.isUpToDate(name)) {
+                        continue;
+                    }
+                    long version = cache.getVersion();
                     Connection conh = conu.getHSQLDBConnection();
                     Pivot pivot = new Pivot(conh);
 
@@ -129,6 +154,10 @@ public class Pivot {
                     }
                     String v = nsql.getSql();
                     st.executeUpdate(v);
+                    Set<String> sourceTables = getSourceTables(conh, eqn);
+                    if (sourceTables != null) {
+                        cache.built(name, sourceTables, version);
+                    }
                 } catch (Exception e) {
                     Logger.logWarning(e.getMessage());
                 } finally {
@@ -143,6 +172,30 @@ public class Pivot {
         }
     }
 
+    // the tables and views a view reads from, directly or through other views
+    private static Set<String> getSourceTables(Connection conh, String viewName) throws SQLException {
+        Set<String> sources = new HashSet<String>();
+        LinkedList<String> toVisit = new LinkedList<String>();
+        toVisit.add(viewName);
+        PreparedStatement ps = conh.prepareStatement(SOURCE_TABLES);
+        try {
+            while (!toVisit.isEmpty()) {
+                ps.setString(1, toVisit.removeFirst());
+                ResultSet rs = ps.executeQuery();
+                while (rs.next()) {
+                    String source = rs.getString(1);
+                    if (sources.add(source)) {
+                        toVisit.add(source);
+                    }
+                }
+                rs.close();
+            }
+        } finally {
+            ps.close();
+        }
+        return sources.isEmpty() ? null : sources;
+    }
+
     public boolean parsePivot(String _originalQuery) {
         this.originalQuery = _originalQuery;
         _originalQuery = _originalQuery.replaceAll("\n", " ").replaceAll("\r", " ")
@@ -0,0 +1,78 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.converters;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps, for the connections to a database, when each crosstab view was last rebuilt and which tables it reads, so
+ * that it's rebuilt only after one of them changed. The changes are recorded as the commands reach the connection and
+ * when they're rolled back; the cache is emptied when a DDL statement is executed, when writing the Access file fails
+ * and when the file is reloaded.
+ */
+public final class PivotCache {
+    private static final class Build {
+        private final Set<String> sourceTables;
+        private final long        version;
+
+        private Build(Set<String> _sourceTables, long _version) {
+            this.sourceTables = _sourceTables;
+            this.version = _version;
+        }
+    }
+
+    private final AtomicLong         version       = new AtomicLong();
+    private final Map<String, Long>  tableVersions = new ConcurrentHashMap<String, Long>();
+    private final Map<String, Build> builds        = new ConcurrentHashMap<String, Build>();
+
+    public void tableChanged(String _tableName) {
+        if (_tableName != null) {
+            tableVersions.put(_tableName, version.incrementAndGet());
+        }
+    }
+
+    public void clear() {
+        builds.clear();
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Records that a crosstab view has been rebuilt from the data of its source tables as of the given version.
+     */
+    void built(String _pivot, Set<String> _sourceTables, long _version) {
+        builds.put(_pivot, new Build(_sourceTables, _version));
+    }
+
+    boolean isUpToDate(String _pivot) {
+        Build build = builds.get(_pivot);
+        if (build == null) {
+            return false;
+        }
+        for (String table : build.sourceTables) {
+            Long changed = tableVersions.get(table);
+            if (changed != null && changed > build.version) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -20,12 +20,15 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,15 +40,10 @@ import net.ucanaccess.jdbc.UcanaccessSQLException.ExceptionMessages;
 import com.healthmarketscience.jackcess.TableBuilder;
 
 public final class SQLConverter {
-    private static final Pattern QUOTE_S_PATTERN        = Pattern.compile("(')+");
-    private static final Pattern DOUBLE_QUOTE_S_PATTERN = Pattern.compile("(\")+");
-
     private static final Pattern SELECT_FROM_PATTERN_START = Pattern.compile("[\\s\n\r]*(?i)SELECT[\\s\n\r]+");
     private static final Pattern SELECT_FROM_PATTERN_END   = Pattern.compile("[\\s\n\r]*(?i)FROM[\\s\n\r\\[]+");
     private static final Pattern UNESCAPED_ALIAS           = Pattern.compile("[\\s\n\r]*(?i)AS[\\s\n\r]*");
 
-    private static final Pattern QUOTE_M_PATTERN                  = Pattern.compile("'(([^'])*)'");
-    private static final Pattern DOUBLE_QUOTE_M_PATTERN           = Pattern.compile("\"(([^\"])*)\"");
     private static final Pattern FIND_LIKE_PATTERN                = Pattern
             .compile("[\\s\n\r\\(]*([\\w\\.]*)([\\s\n\r\\)]*)((?i)NOT[\\s\n\r]*)*(?i)LIKE[\\s\n\r]*\'([^']*(?:'')*)\'");
     private static final Pattern ACCESS_LIKE_CHARINTERVAL_PATTERN =
@@ -62,15 +60,15 @@ public final class SQLConverter {
     private static final Pattern SELECT_IDENTITY      = Pattern.compile("(?i)select[\\s\n\r]+(?i)@@identity.*");
     private static final Pattern HAS_FROM             = Pattern.compile("[\\s\n\r]+(?i)from[\\s\n\r]+");
     private static final Pattern FORMULA_DEPENDENCIES = Pattern.compile("\\[([^\\]]*)\\]");
-    private static final String  EXCLAMATION_POINT    = "(\\!)([\n\r\\s]*)([^\\=])";
+    private static final Pattern EXCLAMATION_POINT    = Pattern.compile("(\\!)([\n\r\\s]*)([^\\=])");
 
-    private static final String   YES                        = "(\\W)((?i)YES)(\\W)";
-    private static final String   NO                         = "(\\W)((?i)NO)(\\W)";
-    private static final String   WITH_OWNERACCESS_OPTION    =
-            "(\\W)(?i)WITH[\\s\n\r]+(?i)OWNERACCESS[\\s\n\r]+(?i)OPTION(\\W)";
+    private static final Pattern  YES                        = Pattern.compile("(\\W)((?i)YES)(\\W)");
+    private static final Pattern  NO                         = Pattern.compile("(\\W)((?i)NO)(\\W)");
+    private static final Pattern  WITH_OWNERACCESS_OPTION    =
+            Pattern.compile("(\\W)(?i)WITH[\\s\n\r]+(?i)OWNERACCESS[\\s\n\r]+(?i)OPTION(\\W)");
     private static final Pattern  DIGIT_STARTING_IDENTIFIERS =
             Pattern.compile("(\\W)(([0-9])+(([_a-zA-Z])+([0-9])*)+)(\\W)");
-    private static final String   UNDERSCORE_IDENTIFIERS     = "(\\W)((_)+([_a-zA-Z0-9])+)(\\W)";
+    private static final Pattern  UNDERSCORE_IDENTIFIERS     = Pattern.compile("(\\W)((_)+([_a-zA-Z0-9])+)(\\W)");
     private static final String   XESCAPED                   = "(\\W)((?i)X)((?i)_)(\\W)";
     private static final String[] DEFAULT_CATCH              =
             new String[] { "([\\s\n\r]*(?i)DEFAULT[\\s\n\r]+)(\'(?:[^']*(?:'')*)*\')([\\s\n\r\\)\\,])",
@@ -94,17 +92,44 @@ public final class SQLConverter {
             "([0-9]|0[0-9]|1[0-9]|2[0-4]):([0-9]|[0-5][0-9]):([0-5][0-9]|[0-9])";
     private static final String NAME_PATTERN         = "(([_a-zA-Z0-9])+|\\[([^\\]])*\\]|`([^`])*`)";
     private static final int    NAME_PATTERN_STEP    = 4;
-    private static final String UNION                = "(;)([\\s\n\r]*)((?i)UNION)([\\s\n\r]*)";
-    private static final String DISTINCT_ROW         = "[\\s\n\r]+(?i)DISTINCTROW[\\s\n\r]+";
+    private static final Pattern UNION               = Pattern.compile("(;)([\\s\n\r]*)((?i)UNION)([\\s\n\r]*)");
+    private static final Pattern DISTINCT_ROW        = Pattern.compile("[\\s\n\r]+(?i)DISTINCTROW[\\s\n\r]+");
     private static final String DEFAULT_VARCHAR      = "(\\W)(?i)VARCHAR([\\s\n\r,\\)])";
 
     private static final String                  DEFAULT_VARCHAR_0            = "(\\W)(?i)VARCHAR([^\\(])";
-    private static final String                  BACKTRIK                     = "(`)([^`]*)(`)";
-    private static final String                  DELETE_ALL                   =
-            "((?i)DELETE[\\s\n\r]+)(\\*)([\\s\n\r]+(?i)FROM[\\s\n\r]+)";
+    private static final Pattern                 BACKTRIK                     = Pattern.compile("(`)([^`]*)(`)");
+    private static final Pattern                 DELETE_ALL                   =
+            Pattern.compile("((?i)DELETE[\\s\n\r]+)(\\*)([\\s\n\r]+(?i)FROM[\\s\n\r]+)");
     private static final String                  PARAMETERS                   = "(?i)PARAMETERS([^;]*);";
     private static final Pattern                 ESPRESSION_DIGIT             = Pattern.compile("([\\d]+)(?![\\.\\d])");
     private static final String                  BIG_BANG                     = "1899-12-30";
+    // each #...# literal is checked against these patterns in turn, the first match wins
+    private static final Pattern[]               ACCESS_DATE_LITERALS         = {
+            // FORMAT MM/dd/yyyy
+            Pattern.compile("#" + DATE_ACCESS_FORMAT + "#"),
+            Pattern.compile("#" + DATE_ACCESS_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")#"),
+            Pattern.compile("#" + DATE_ACCESS_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)AM#"),
+            Pattern.compile("#" + DATE_ACCESS_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)PM#"),
+            // FORMAT yyyy-MM-dd
+            Pattern.compile("#" + DATE_FORMAT + "#"),
+            Pattern.compile("#" + DATE_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")#"),
+            Pattern.compile("#" + DATE_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)AM#"),
+            Pattern.compile("#" + DATE_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)PM#"),
+            Pattern.compile("#(" + HHMMSS_ACCESS_FORMAT + ")#"),
+            Pattern.compile("#(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)AM#"),
+            Pattern.compile("#(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)PM#") };
+    private static final String[]                ACCESS_DATE_REPLACEMENTS     = {
+            "Timestamp('$3-$1-$2 00:00:00')",
+            "Timestamp0('$3-$1-$2 $4')",
+            "Timestamp0('$3-$1-$2 $4')",
+            "(Timestamp0('$3-$1-$2 $4')+ 12 Hour) ",
+            "Timestamp0('$1-$2-$3 00:00:00')",
+            "Timestamp0('$1-$2-$3 $4')",
+            "Timestamp0('$1-$2-$3 $4')",
+            "(Timestamp0('$1-$2-$3 $4')+ 12 Hour)",
+            "Timestamp'" + BIG_BANG + " $1'",
+            "Timestamp'" + BIG_BANG + " $1'",
+            "(Timestamp'" + BIG_BANG + " $1'+ 12 Hour)" };
     private static final Map<String, String>     NO_ROMAN_CHARACTERS = new HashMap<String, String>();
     private static final List<String>            KEYWORDLIST                  = Arrays.asList("ALL", "AND", "ANY",
             "ALTER", "AS", "AT", "AVG", "BETWEEN", "BOTH", "BY", "CALL", "CASE", "CAST", "CHECK", "COALESCE",
@@ -114,14 +139,26 @@ public final class SQLConverter {
             "ON", "ORDER", "OR", "OUTER", "PRIMARY", "REFERENCES", "RIGHT", "SELECT", "SET", "SOME", "STDDEV_POP",
             "STDDEV_SAMP", "SUM", "TABLE", "THEN", "TO", "TRAILING", "TRIGGER", "UNION", "UNIQUE", "USING", "VALUES",
             "VAR_POP", "VAR_SAMP", "WHEN", "WHERE", "WITH", "END", "DO", "CONSTRAINT", "USER", "ROW");
-    private static final String              KEYWORD_ALIAS                  = createKeywordAliasRegex();
+    private static final Pattern             KEYWORD_ALIAS                  =
+            Pattern.compile(createKeywordAliasRegex(), Pattern.CASE_INSENSITIVE);
     private static final List<String>        PROCEDURE_KEYWORD_LIST         = Arrays.asList("NEW", "ROW");
-    private static final List<String>        WHITE_SPACED_TABLE_NAMES       = new ArrayList<String>();
-    private static final Set<String>         ESCAPED_IDENTIFIERS            = new HashSet<String>();
-    private static final Set<String>         ALREADY_ESCAPED_IDENTIFIERS    = new HashSet<String>();
-    private static final Map<String, String> IDENTIFIERS_CONTAINING_KEYWORD = new HashMap<String, String>();
-    private static final Set<String>         APOSTROPHISED_NAMES            = new HashSet<String>();
-    private static final Set<String>         WORKAROUND_FUNCTIONS           = new HashSet<String>();
+    private static final Set<String>         WORKAROUND_FUNCTIONS           =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    // the names of each database are counted by its ConversionContext, the settings shared by all of them here
+    private static final AtomicLong          GENERATION                     = new AtomicLong();
+    private static final Pattern[]           STATISTIC_FUNCTIONS            = {
+            Pattern.compile("(\\W)(?i)STDEV\\s*\\("), Pattern.compile("(\\W)(?i)STDEVP\\s*\\("),
+            Pattern.compile("(\\W)(?i)VAR\\s*\\("), Pattern.compile("(\\W)(?i)VARP\\s*\\("),
+            Pattern.compile("(\\W)(?i)currentUser\\s*\\(") };
+    private static final String[]            STATISTIC_FUNCTIONS_HSQLDB     =
+            { "$1STDDEV_SAMP(", "$1STDDEV_POP(", "$1VAR_SAMP(", "$1VAR_POP(", "$1user(" };
+    private static final Pattern[]           HSQLDB_FUNCTIONS               = {
+            Pattern.compile("(\\W)(?i)STDDEV_SAMP\\s*\\("), Pattern.compile("(\\W)(?i)STDDEV_POP\\s*\\("),
+            Pattern.compile("(\\W)(?i)VAR_SAMP\\s*\\("), Pattern.compile("(\\W)(?i)VAR_POP\\s*\\("),
+            Pattern.compile("(\\W)(?i)user\\s*\\(") };
+    private static final String[]            HSQLDB_FUNCTIONS_ACCESS        =
+            { "$1STDEV(", "$1STDEVP(", "$1VAR(", "$1VARP(", "$1currentUser(" };
 
     private static boolean supportsAccessLike  = true;
     private static boolean dualUsedAsTableName = false;
@@ -210,64 +247,6 @@ public final class SQLConverter {
         return KEYWORDLIST.contains(s.toUpperCase());
     }
 
-    private static int[] getQuoteGroup(String s) {
-        if (s.indexOf("''") < 0) {
-            Matcher mtc = QUOTE_M_PATTERN.matcher(s);
-            return mtc.find() ? new int[] { mtc.start(), mtc.end() } : null;
-        } else {
-            int[] ret = new int[] { -1, -1 };
-            Pattern pt = QUOTE_S_PATTERN;
-            Matcher mc = pt.matcher(s);
-            while (mc.find()) {
-                int start = mc.start();
-                int end = mc.end();
-                if ((end - start) % 2 == 0) {
-                    if (ret[0] == -1) {
-                        return new int[] { mc.start(), mc.end() };
-                    }
-                    continue;
-                } else {
-                    if (ret[0] == -1) {
-                        ret[0] = mc.start();
-                    } else {
-                        ret[1] = mc.end();
-                        return ret;
-                    }
-                }
-            }
-            return null;
-        }
-    }
-
-    private static int[] getDoubleQuoteGroup(String s) {
-        if (s.indexOf("\"\"") < 0) {
-            Matcher mtc = DOUBLE_QUOTE_M_PATTERN.matcher(s);
-            return mtc.find() ? new int[] { mtc.start(), mtc.end() } : null;
-        } else {
-            int[] ret = new int[] { -1, -1 };
-            Pattern pt = DOUBLE_QUOTE_S_PATTERN;
-            Matcher mc = pt.matcher(s);
-            while (mc.find()) {
-                int start = mc.start();
-                int end = mc.end();
-                if ((end - start) % 2 == 0) {
-                    if (ret[0] == -1) {
-                        return new int[] { mc.start(), mc.end() };
-                    }
-                    continue;
-                } else {
-                    if (ret[0] == -1) {
-                        ret[0] = mc.start();
-                    } else {
-                        ret[1] = mc.end();
-                        return ret;
-                    }
-                }
-            }
-            return null;
-        }
-    }
-
     public static enum DDLType {
 
         CREATE_TABLE_AS_SELECT(
@@ -389,44 +368,56 @@ public final class SQLConverter {
     }
 
     static void addWAFunctionName(String name) {
-        WORKAROUND_FUNCTIONS.add(name);
+        if (WORKAROUND_FUNCTIONS.add(name)) {
+            GENERATION.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a number that changes whenever the names of the given context or the settings the conversion of a
+     * statement depends on change, so that the cached conversions can be discarded.
+     */
+    public static long getGeneration(ConversionContext context) {
+        return GENERATION.get() + context.getGeneration();
     }
 
     public static DDLType getDDLType(String s) {
         return DDLType.getDDLType(s);
     }
 
+    static Pattern identifierPattern(String regex) {
+        return ConversionContext.current().pattern(regex);
+    }
+
     private static String replaceWorkAroundFunctions(String sql) {
 
         for (String waFun : WORKAROUND_FUNCTIONS) {
-            sql = sql.replaceAll("(\\W)(?i)" + waFun + "\\s*\\(", "$1" + waFun + "WA(");
+            sql = identifierPattern("(\\W)(?i)" + waFun + "\\s*\\(").matcher(sql).replaceAll("$1" + waFun + "WA(");
+        }
+        for (int i = 0; i < STATISTIC_FUNCTIONS.length; i++) {
+            sql = STATISTIC_FUNCTIONS[i].matcher(sql).replaceAll(STATISTIC_FUNCTIONS_HSQLDB[i]);
         }
-        sql = sql.replaceAll("(\\W)(?i)STDEV\\s*\\(", "$1STDDEV_SAMP(");
-        sql = sql.replaceAll("(\\W)(?i)STDEVP\\s*\\(", "$1STDDEV_POP(");
-        sql = sql.replaceAll("(\\W)(?i)VAR\\s*\\(", "$1VAR_SAMP(");
-        sql = sql.replaceAll("(\\W)(?i)VARP\\s*\\(", "$1VAR_POP(");
-        return sql.replaceAll("(\\W)(?i)currentUser\\s*\\(", "$1user(");
+        return sql;
     }
 
     public static String restoreWorkAroundFunctions(String sql) {
         for (String waFun : WORKAROUND_FUNCTIONS) {
-            sql = sql.replaceAll("(\\W)(?i)" + waFun + "WA\\s*\\(", "$1" + waFun + "(");
+            sql = identifierPattern("(\\W)(?i)" + waFun + "WA\\s*\\(").matcher(sql).replaceAll("$1" + waFun + "(");
         }
-        sql = sql.replaceAll("(\\W)(?i)STDDEV_SAMP\\s*\\(", "$1STDEV(");
-        sql = sql.replaceAll("(\\W)(?i)STDDEV_POP\\s*\\(", "$1STDEVP(");
-        sql = sql.replaceAll("(\\W)(?i)VAR_SAMP\\s*\\(", "$1VAR(");
-        sql = sql.replaceAll("(\\W)(?i)VAR_POP\\s*\\(", "$1VARP(");
-        return sql.replaceAll("(\\W)(?i)user\\s*\\(", "$1currentUser(");
+        for (int i = 0; i < HSQLDB_FUNCTIONS.length; i++) {
+            sql = HSQLDB_FUNCTIONS[i].matcher(sql).replaceAll(HSQLDB_FUNCTIONS_ACCESS[i]);
+        }
+        return sql;
     }
 
     private static String replaceBacktrik(String sql) {
-        return sql.replaceAll(BACKTRIK, "[$2]");
+        return BACKTRIK.matcher(sql).replaceAll("[$2]");
     }
 
     private static String replaceAposNames(String sql) {
-        for (String an : APOSTROPHISED_NAMES) {
-            sql = sql.replaceAll("(?i)" + Pattern.quote("[" + an + "]"),
-                    "[" + SQLConverter.basicEscapingIdentifier(an) + "]");
+        for (String an : ConversionContext.current().apostrophisedNames) {
+            sql = identifierPattern("(?i)" + Pattern.quote("[" + an + "]")).matcher(sql)
+                    .replaceAll("[" + SQLConverter.basicEscapingIdentifier(an) + "]");
         }
         return sql;
     }
@@ -436,6 +427,18 @@ public final class SQLConverter {
     }
 
     public static NormalizedSQL convertSQL(String sql, UcanaccessConnection conn, boolean creatingQuery) {
+        if (conn == null) {
+            return convertSQL0(sql, conn, creatingQuery);
+        }
+        ConversionContext previous = conn.getConversionContext().bind();
+        try {
+            return convertSQL0(sql, conn, creatingQuery);
+        } finally {
+            ConversionContext.restore(previous);
+        }
+    }
+
+    private static NormalizedSQL convertSQL0(String sql, UcanaccessConnection conn, boolean creatingQuery) {
         NormalizedSQL nsql = new NormalizedSQL();
         sql = sql + " ";
         aliases(sql, nsql);
@@ -460,28 +463,28 @@ public final class SQLConverter {
     }
 
     private static String replaceExclamationPoints(String sql) {
-        return sql.replaceAll(EXCLAMATION_POINT, ".$2$3");
+        return EXCLAMATION_POINT.matcher(sql).replaceAll(".$2$3");
     }
 
     private static String convertOwnerAccess(String sql) {
-        return sql.replaceAll(WITH_OWNERACCESS_OPTION, "");
+        return WITH_OWNERACCESS_OPTION.matcher(sql).replaceAll("");
     }
 
     private static String convertDeleteAll(String sql) {
-        return sql.replaceAll(DELETE_ALL, "$1$3");
+        return DELETE_ALL.matcher(sql).replaceAll("$1$3");
     }
 
     private static String convertUnion(String sql) {
-        return sql.replaceAll(UNION, "$2$3$4");
+        return UNION.matcher(sql).replaceAll("$2$3$4");
     }
 
     private static String convertYesNo(String sql) {
-        sql = sql.replaceAll(YES, "$1true$3");
+        sql = YES.matcher(sql).replaceAll("$1true$3");
         Matcher mtc = NO_DATA_PATTERN.matcher(sql);
         if (mtc.find()) {
-            sql = sql.substring(0, mtc.start()).replaceAll(NO, "$1false$3") + sql.substring(mtc.start());
+            sql = NO.matcher(sql.substring(0, mtc.start())).replaceAll("$1false$3") + sql.substring(mtc.start());
         } else {
-            sql = sql.replaceAll(NO, "$1false$3");
+            sql = NO.matcher(sql).replaceAll("$1false$3");
         }
         return sql;
     }
@@ -516,21 +519,27 @@ public final class SQLConverter {
     }
 
     private static String replaceDistinctRow(String sql) {
-        return sql.replaceAll(DISTINCT_ROW, " DISTINCT ");
+        return DISTINCT_ROW.matcher(sql).replaceAll(" DISTINCT ");
     }
 
     static void addWhiteSpacedTableNames(String name) {
+        ConversionContext context = ConversionContext.current();
+        List<String> names = context.whiteSpacedTableNames;
         name = basicEscapingIdentifier(name);
-        if (WHITE_SPACED_TABLE_NAMES.contains(name)) {
+        if (names.contains(name)) {
             return;
         }
-        for (String alrIn : WHITE_SPACED_TABLE_NAMES) {
+        for (String alrIn : names) {
             if (name.contains(alrIn)) {
-                WHITE_SPACED_TABLE_NAMES.add(WHITE_SPACED_TABLE_NAMES.indexOf(alrIn), name);
+                names.add(names.indexOf(alrIn), name);
+                context.whiteSpacedTableNamesTrie = new NameTrie(names);
+                context.changed();
                 return;
             }
         }
-        WHITE_SPACED_TABLE_NAMES.add(name);
+        names.add(name);
+        context.whiteSpacedTableNamesTrie = new NameTrie(names);
+        context.changed();
     }
 
     public static NormalizedSQL convertSQL(String sql) {
@@ -541,64 +550,116 @@ public final class SQLConverter {
         return convertSQL(sql, conn, false);
     }
 
+    /**
+     * Converts the Access date literals found outside the quoted literals.
+     */
     public static String convertAccessDate(String sql) {
-        sql = sql.replaceAll("#" + DATE_ACCESS_FORMAT + "#", "Timestamp('$3-$1-$2 00:00:00')")
-                // FORMAT MM/dd/yyyy
-                .replaceAll("#" + DATE_ACCESS_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")#",
-                        "Timestamp0('$3-$1-$2 $4')")
-
-                .replaceAll("#" + DATE_ACCESS_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)AM#",
-                        "Timestamp0('$3-$1-$2 $4')")
-
-                .replaceAll("#" + DATE_ACCESS_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)PM#",
-                        "(Timestamp0('$3-$1-$2 $4')+ 12 Hour) ")
-                // FORMAT yyyy-MM-dd
-                .replaceAll("#" + DATE_FORMAT + "#", "Timestamp0('$1-$2-$3 00:00:00')")
-
-                .replaceAll("#" + DATE_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")#", "Timestamp0('$1-$2-$3 $4')")
-
-                .replaceAll("#" + DATE_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)AM#",
-                        "Timestamp0('$1-$2-$3 $4')")
-
-                .replaceAll("#" + DATE_FORMAT + "\\s*(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)PM#",
-                        "(Timestamp0('$1-$2-$3 $4')+ 12 Hour)")
+        if (sql.indexOf('#') < 0) {
+            return sql;
+        }
+        StringBuilder sb = new StringBuilder(sql.length() + 16);
+        for (SQLLexer.Token token : SQLLexer.tokenize(sql)) {
+            if (token.getKind() == SQLLexer.Kind.TEXT) {
+                sb.append(convertAccessDate0(token.getText(sql)));
+            } else {
+                sb.append(token.getText(sql));
+            }
+        }
+        return sb.toString();
+    }
 
-                .replaceAll("#(" + HHMMSS_ACCESS_FORMAT + ")#", "Timestamp'" + BIG_BANG + " $1'")
-                .replaceAll("#(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)AM#", "Timestamp'" + BIG_BANG + " $1'")
-                .replaceAll("#(" + HHMMSS_ACCESS_FORMAT + ")\\s*(?i)PM#", "(Timestamp'" + BIG_BANG + " $1'+ 12 Hour)");
+    static String convertAccessDate0(String sql) {
+        int i = sql.indexOf('#');
+        if (i < 0) {
+            return sql;
+        }
+        Matcher[] matchers = new Matcher[ACCESS_DATE_LITERALS.length];
+        StringBuilder sb = new StringBuilder(sql.length() + 16);
+        int last = 0;
+        while (i >= 0) {
+            int next = i + 1;
+            for (int k = 0; k < ACCESS_DATE_LITERALS.length; k++) {
+                if (matchers[k] == null) {
+                    matchers[k] = ACCESS_DATE_LITERALS[k].matcher(sql);
+                }
+                Matcher mtc = matchers[k].region(i, sql.length());
+                if (mtc.lookingAt()) {
+                    sb.append(sql, last, i);
+                    appendDateReplacement(sb, mtc, ACCESS_DATE_REPLACEMENTS[k]);
+                    last = next = mtc.end();
+                    break;
+                }
+            }
+            i = sql.indexOf('#', next);
+        }
+        return last == 0 ? sql : sb.append(sql, last, sql.length()).toString();
+    }
 
-        return sql;
+    private static void appendDateReplacement(StringBuilder sb, Matcher mtc, String replacement) {
+        for (int j = 0; j < replacement.length(); j++) {
+            char c = replacement.charAt(j);
+            if (c == '$') {
+                sb.append(mtc.group(replacement.charAt(++j) - '0'));
+            } else {
+                sb.append(c);
+            }
+        }
     }
 
     private static String replaceWhiteSpacedTables(String sql) {
-        String[] sqls = sql.split("'", -1);
-        StringBuffer sb = new StringBuffer();
-        String cm = "";
-        for (int i = 0; i < sqls.length; ++i) {
-            sb.append(cm).append(i % 2 == 0 ? replaceWhiteSpacedTableNames0(sqls[i]) : sqls[i]);
-            cm = "'";
+        StringBuilder sb = new StringBuilder(sql.length() + 16);
+        // the names are looked for in the text between two string literals, double quoted identifiers included
+        int from = 0;
+        for (SQLLexer.Token token : SQLLexer.tokenize(sql)) {
+            if (token.getKind() == SQLLexer.Kind.SINGLE_QUOTED) {
+                sb.append(replaceWhiteSpacedTableNames0(sql.substring(from, token.getStart())))
+                        .append(token.getText(sql));
+                from = token.getEnd();
+            }
         }
-        return sb.toString();
+        return sb.append(replaceWhiteSpacedTableNames0(sql.substring(from))).toString();
     }
 
     private static String replaceWhiteSpacedTableNames0(String sql) {
-        if (WHITE_SPACED_TABLE_NAMES.size() == 0) {
+        ConversionContext context = ConversionContext.current();
+        NameTrie trie = context.whiteSpacedTableNamesTrie;
+        if (trie.isEmpty()) {
             return sql;
         }
-        StringBuffer sb = new StringBuffer("(");
-        String or = "";
-        for (String bst : WHITE_SPACED_TABLE_NAMES) {
-            sb.append(or).append("(?i)" + Pattern.quote(bst));
-            or = "|";
-        }
         // workaround o.o. and l.o.
-        for (String bst : WHITE_SPACED_TABLE_NAMES) {
-            String dw = bst.replaceAll(" ", "  ");
-            sql = sql.replaceAll(Pattern.quote(dw), bst);
+        for (String bst : context.whiteSpacedTableNames) {
+            sql = sql.replace(bst.replace(" ", "  "), bst);
+        }
+        // quotes the longest name found between two separators, each separator belonging to one name at most
+        StringBuilder sb = null;
+        int last = 0;
+        int i = 0;
+        while (i < sql.length() - 1) {
+            int end = -1;
+            if (isNameSeparator(sql.charAt(i))) {
+                NameTrie.Node node = trie.getRoot();
+                for (int j = i + 1; j < sql.length() && (node = node.next(sql.charAt(j))) != null; j++) {
+                    if (node.isName() && j + 1 < sql.length() && isNameSeparator(sql.charAt(j + 1))) {
+                        end = j + 1;
+                    }
+                }
+            }
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(sql.length() + 16);
+            }
+            sb.append(sql, last, i).append(' ').append(sql.charAt(i)).append('"').append(sql, i + 1, end).append('"')
+                    .append(sql.charAt(end));
+            last = i = end + 1;
         }
-        sb.append(")");
-        sql = sql.replaceAll("([^A-Za-z0-9\"])" + sb.toString() + "([^A-Za-z0-9\"])", " $1\"$2\"$3");
-        return sql;
+        return sb == null ? sql : sb.append(sql, last, sql.length()).toString();
+    }
+
+    private static boolean isNameSeparator(char c) {
+        return !(c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '"');
     }
 
     private static String convertIdentifiers(String sql) {
@@ -613,7 +674,11 @@ public final class SQLConverter {
                 String tryContent = " " + content + " ";
                 String tryConversion = convertXescaped(tryContent);
                 if (!tryConversion.equalsIgnoreCase(tryContent)) {
-                    IDENTIFIERS_CONTAINING_KEYWORD.put(tryConversion.trim(), content.toUpperCase());
+                    String upper = content.toUpperCase();
+                    ConversionContext context = ConversionContext.current();
+                    if (!upper.equals(context.identifiersContainingKeyword.put(tryConversion.trim(), upper))) {
+                        context.changed();
+                    }
                 }
             }
             boolean isKeyword = KEYWORDLIST.contains(content.toUpperCase());
@@ -635,12 +700,12 @@ public final class SQLConverter {
             return ".";
         }
         return replaceExclamationPoints(
-                replaceDigitStartingIdentifiers(sql.replaceAll(UNDERSCORE_IDENTIFIERS, "$1Z$2$5")));
+                replaceDigitStartingIdentifiers(UNDERSCORE_IDENTIFIERS.matcher(sql).replaceAll("$1Z$2$5")));
     }
 
     private static String convertSQLTokens(String sql) {
         return convertDeleteAll(replaceWorkAroundFunctions(
-                convertOwnerAccess(replaceDistinctRow(convertYesNo(sql.replaceAll("&", "||"))))));
+                convertOwnerAccess(replaceDistinctRow(convertYesNo(sql.replace("&", "||"))))));
     }
 
     private static String replaceDigitStartingIdentifiers(String sql) {
@@ -662,8 +727,8 @@ public final class SQLConverter {
     }
 
     private static String convertXescaped(String sqlc) {
-        for (String xidt : ESCAPED_IDENTIFIERS) {
-            sqlc = sqlc.replaceAll(XESCAPED.replaceAll("_", xidt), "$1$3$4");
+        for (String xidt : ConversionContext.current().escapedIdentifiers) {
+            sqlc = identifierPattern(XESCAPED.replace("_", xidt)).matcher(sqlc).replaceAll("$1$3$4");
         }
         return sqlc;
     }
@@ -671,10 +736,11 @@ public final class SQLConverter {
     private static String convertPartIdentifiers(String sql) {
         String sqlc = convertIdentifiers(sql);
         sqlc = convertXescaped(sqlc);
-        for (Map.Entry<String, String> entry : IDENTIFIERS_CONTAINING_KEYWORD.entrySet()) {
-            sqlc = sqlc.replaceAll("(?i)\"" + entry.getKey() + "\"", "\"" + entry.getValue() + "\"");
+        for (Map.Entry<String, String> entry : ConversionContext.current().identifiersContainingKeyword.entrySet()) {
+            sqlc = identifierPattern("(?i)\"" + entry.getKey() + "\"").matcher(sqlc)
+                    .replaceAll("\"" + entry.getValue() + "\"");
         }
-        sqlc = Pattern.compile(KEYWORD_ALIAS, Pattern.CASE_INSENSITIVE).matcher(sqlc).replaceAll("$1\"$2\"$3");
+        sqlc = KEYWORD_ALIAS.matcher(sqlc).replaceAll("$1\"$2\"$3");
         return sqlc;
     }
 
@@ -684,27 +750,27 @@ public final class SQLConverter {
         String suff = enddq ? "" : sql.substring(li + 1);
         suff = convertPartIdentifiers(suff);
         String tsql = enddq ? sql : sql.substring(0, li + 1);
-        int[] fd = getDoubleQuoteGroup(tsql);
-        int[] fs = getQuoteGroup(tsql);
-        if (fd != null || fs != null) {
-            boolean inid = fs == null || (fd != null && fd[0] < fs[0]);
-            String group, str;
-            int[] mcr = inid ? fd : fs;
-            group = tsql.substring(mcr[0] + 1, mcr[1] - 1);
-            if (inid) {
-                group = group.replaceAll("'", "''").replaceAll("\"\"", "\"");
+        StringBuilder sb = new StringBuilder(sql.length());
+        for (SQLLexer.Token token : SQLLexer.tokenize(tsql)) {
+            switch (token.getKind()) {
+            case SINGLE_QUOTED:
+                sb.append(token.getText(tsql));
+                break;
+            case DOUBLE_QUOTED:
+                sb.append('\'').append(token.getContent(tsql).replace("'", "''").replace("\"\"", "\"")).append('\'');
+                break;
+            default:
+                sb.append(convertPartIdentifiers(token.getText(tsql)));
             }
-            str = tsql.substring(0, mcr[0]);
-            str = convertPartIdentifiers(str);
-            tsql = str + "'" + group + "'" + escape(tsql.substring(mcr[1]));
-        } else {
-            tsql = convertPartIdentifiers(tsql);
         }
-        return tsql + suff;
+        return sb.append(suff).toString();
     }
 
     public static void cleanEscaped() {
-        ESCAPED_IDENTIFIERS.removeAll(ALREADY_ESCAPED_IDENTIFIERS);
+        ConversionContext context = ConversionContext.current();
+        if (context.escapedIdentifiers.removeAll(context.alreadyEscapedIdentifiers)) {
+            context.changed();
+        }
     }
 
     public static String procedureEscapingIdentifier(String name) {
@@ -723,15 +789,16 @@ public final class SQLConverter {
             return null;
         }
         String nl = name.toUpperCase(Locale.US);
-        if (TableBuilder.isReservedWord(nl)) {
-            ESCAPED_IDENTIFIERS.add(nl);
+        ConversionContext context = ConversionContext.current();
+        if (TableBuilder.isReservedWord(nl) && context.escapedIdentifiers.add(nl)) {
+            context.changed();
         }
-        if (name.indexOf("'") >= 0 || name.indexOf("\"") > 0) {
-            APOSTROPHISED_NAMES.add(name);
+        if ((name.indexOf("'") >= 0 || name.indexOf("\"") > 0) && context.apostrophisedNames.add(name)) {
+            context.changed();
         }
 
         if (nl.startsWith("X") && TableBuilder.isReservedWord(nl.substring(1))) {
-            ALREADY_ESCAPED_IDENTIFIERS.add(nl.substring(1));
+            context.alreadyEscapedIdentifiers.add(nl.substring(1));
         }
 
         String escaped = name;
@@ -953,11 +1020,14 @@ public final class SQLConverter {
     }
 
     public static void setSupportsAccessLike(boolean _supportsAccessLike) {
-        SQLConverter.supportsAccessLike = _supportsAccessLike;
+        if (SQLConverter.supportsAccessLike != _supportsAccessLike) {
+            SQLConverter.supportsAccessLike = _supportsAccessLike;
+            GENERATION.incrementAndGet();
+        }
     }
 
     public static boolean isXescaped(String identifier) {
-        return ESCAPED_IDENTIFIERS.contains(identifier);
+        return ConversionContext.current().escapedIdentifiers.contains(identifier);
     }
 
     public static String convertFormula(String sql) {
@@ -1000,20 +1070,15 @@ public final class SQLConverter {
         String suff = enddq ? "" : sql.substring(li + 1);
         suff = convertDigit(suff);
         String tsql = enddq ? sql : sql.substring(0, li + 1);
-        int[] fd = getDoubleQuoteGroup(tsql);
-        int[] fs = getQuoteGroup(tsql);
-        if (fd != null || fs != null) {
-            boolean inid = fs == null || (fd != null && fd[0] < fs[0]);
-            String group, str;
-            int[] mcr = inid ? fd : fs;
-            group = tsql.substring(mcr[0], mcr[1]);
-            str = tsql.substring(0, mcr[0]);
-            str = convertDigit(str);
-            tsql = str + group + convertFormula0(tsql.substring(mcr[1]));
-        } else {
-            tsql = convertDigit(tsql);
+        StringBuilder sb = new StringBuilder(sql.length());
+        for (SQLLexer.Token token : SQLLexer.tokenize(tsql)) {
+            if (token.getKind() == SQLLexer.Kind.TEXT) {
+                sb.append(convertDigit(token.getText(tsql)));
+            } else {
+                sb.append(token.getText(tsql));
+            }
         }
-        return tsql + suff;
+        return sb.append(suff).toString();
     }
 
     public static String convertPowOperator(String sql) {
@@ -1162,7 +1227,10 @@ public final class SQLConverter {
     }
 
     static void setDualUsedAsTableName(boolean _dualUsedAsTableName) {
-        SQLConverter.dualUsedAsTableName = _dualUsedAsTableName;
+        if (SQLConverter.dualUsedAsTableName != _dualUsedAsTableName) {
+            SQLConverter.dualUsedAsTableName = _dualUsedAsTableName;
+            GENERATION.incrementAndGet();
+        }
     }
 
     public static String removeParameters(String qtxt) {
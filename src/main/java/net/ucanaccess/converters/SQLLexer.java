@@ -0,0 +1,151 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.converters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits an SQL statement into the literals delimited by single or double quotes and the text between them, in a
+ * single left-to-right pass. Inside a literal, a doubled quote stands for the quote itself. A quote which is never
+ * closed is left in the text.
+ */
+final class SQLLexer {
+    enum Kind {
+        TEXT,
+        SINGLE_QUOTED,
+        DOUBLE_QUOTED
+    }
+
+    static final class Token {
+        private final Kind kind;
+        private final int  start;
+        private final int  end;
+
+        private Token(Kind _kind, int _start, int _end) {
+            this.kind = _kind;
+            this.start = _start;
+            this.end = _end;
+        }
+
+        Kind getKind() {
+            return kind;
+        }
+
+        int getStart() {
+            return start;
+        }
+
+        int getEnd() {
+            return end;
+        }
+
+        /**
+         * Returns the text of the token, quotes included.
+         */
+        String getText(String _sql) {
+            return _sql.substring(start, end);
+        }
+
+        /**
+         * Returns the text of a literal without its enclosing quotes.
+         */
+        String getContent(String _sql) {
+            return _sql.substring(start + 1, end - 1);
+        }
+    }
+
+    /**
+     * Finds the first literal delimited by a quote character from a given position. The answer is kept for the
+     * following positions, as long as they don't go past the quote it starts from, so that each character is scanned
+     * about once.
+     */
+    private static final class LiteralFinder {
+        private final String sql;
+        private final char   quote;
+        private boolean      searched;
+        private int          firstQuote;
+        private int[]        literal;
+
+        private LiteralFinder(String _sql, char _quote) {
+            this.sql = _sql;
+            this.quote = _quote;
+        }
+
+        private int[] find(int _from) {
+            if (searched && (firstQuote < 0 || firstQuote >= _from)) {
+                return literal;
+            }
+            searched = true;
+            literal = null;
+            firstQuote = sql.indexOf(quote, _from);
+            if (firstQuote < 0) {
+                return null;
+            }
+            int end = endOfRun(firstQuote);
+            // a run of an even number of quotes is a literal by itself
+            if ((end - firstQuote) % 2 == 0) {
+                literal = new int[] { firstQuote, end };
+                return literal;
+            }
+            // the literal ends with the next run of an odd number of quotes
+            for (int i = sql.indexOf(quote, end); i >= 0; i = sql.indexOf(quote, end)) {
+                end = endOfRun(i);
+                if ((end - i) % 2 == 1) {
+                    literal = new int[] { firstQuote, end };
+                    return literal;
+                }
+            }
+            return null;
+        }
+
+        private int endOfRun(int _start) {
+            int i = _start;
+            while (i < sql.length() && sql.charAt(i) == quote) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    private SQLLexer() {
+    }
+
+    static List<Token> tokenize(String _sql) {
+        List<Token> tokens = new ArrayList<Token>();
+        LiteralFinder singles = new LiteralFinder(_sql, '\'');
+        LiteralFinder doubles = new LiteralFinder(_sql, '"');
+        int pos = 0;
+        while (true) {
+            int[] single = singles.find(pos);
+            int[] dbl = doubles.find(pos);
+            if (single == null && dbl == null) {
+                break;
+            }
+            boolean isDouble = single == null || (dbl != null && dbl[0] < single[0]);
+            int[] literal = isDouble ? dbl : single;
+            if (literal[0] > pos) {
+                tokens.add(new Token(Kind.TEXT, pos, literal[0]));
+            }
+            tokens.add(new Token(isDouble ? Kind.DOUBLE_QUOTED : Kind.SINGLE_QUOTED, literal[0], literal[1]));
+            pos = literal[1];
+        }
+        if (pos < _sql.length()) {
+            tokens.add(new Token(Kind.TEXT, pos, _sql.length()));
+        }
+        return tokens;
+    }
+}
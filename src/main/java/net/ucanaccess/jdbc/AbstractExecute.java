@@ -23,6 +23,7 @@ import java.sql.Statement;
 import java.util.Locale;
 
 import net.ucanaccess.commands.DDLCommandEnlist;
+import net.ucanaccess.converters.ConversionContext;
 import net.ucanaccess.converters.Metadata;
 import net.ucanaccess.converters.SQLConverter;
 import net.ucanaccess.converters.SQLConverter.DDLType;
@@ -144,6 +145,9 @@ public abstract class AbstractExecute {
 
     private Object addDDLCommand() throws SQLException {
         Object ret;
+        // DDL works on the Access schema: the pending writes must come first
+        ((UcanaccessConnection) this.statement.getConnection()).sync();
+        ((UcanaccessConnection) this.statement.getConnection()).loadReferencedTables(sql);
         try {
             DDLType ddlType = SQLConverter.getDDLType(sql);
             if (ddlType == null) {
@@ -233,6 +237,11 @@ public abstract class AbstractExecute {
 
             ret = (this instanceof Execute) ? statement.getWrapped().execute(ddlExpr)
                     : statement.getWrapped().executeUpdate(ddlExpr);
+            UcanaccessConnection conn = (UcanaccessConnection) this.statement.getConnection();
+            conn.getTriggerTables().clear();
+            conn.getSQLConversions().clear();
+            conn.getPivotCache().clear();
+            conn.getConversionContext().metadataChanged();
 
             DDLCommandEnlist ddle = new DDLCommandEnlist();
             ddle.enlistDDLCommand(SQLConverter.restoreWorkAroundFunctions(sql), ddlType);
@@ -256,21 +265,26 @@ public abstract class AbstractExecute {
             UcanaccessConnection.setCtxExecId(Math.random() + "");
         }
         Object retv;
-
-        if (checkDDL()) {
-            retv = addDDLCommand();
-        } else {
-            try {
-                retv = executeWrapped();
-            } catch (SQLException e) {
-                if (conn.getAutoCommit()) {
-                    conn.rollback();
+        // the DDL conversions and the names they register belong to the database of the connection
+        ConversionContext previous = conn.getConversionContext().bind();
+        try {
+            if (checkDDL()) {
+                retv = addDDLCommand();
+            } else {
+                try {
+                    retv = executeWrapped();
+                } catch (SQLException e) {
+                    if (conn.getAutoCommit()) {
+                        conn.rollback();
+                    }
+                    throw e;
                 }
-                throw e;
             }
-        }
-        if (conn.getAutoCommit()) {
-            conn.commit();
+            if (conn.getAutoCommit()) {
+                conn.commit();
+            }
+        } finally {
+            ConversionContext.restore(previous);
         }
 
         return retv;
@@ -0,0 +1,76 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.jdbc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the writes to the Access file of a database, as Jackcess isn't thread-safe, and measures how much the
+ * committers have to wait for one another. Commits against other databases don't take it.
+ */
+public final class CommitLock {
+    private final ReentrantLock lock         = new ReentrantLock();
+    private final AtomicLong    acquisitions = new AtomicLong();
+    private final AtomicLong    contentions  = new AtomicLong();
+    private final AtomicLong    waitNanos    = new AtomicLong();
+
+    void lock() {
+        if (!lock.tryLock()) {
+            long start = System.nanoTime();
+            lock.lock();
+            contentions.incrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+        acquisitions.incrementAndGet();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    boolean isHeldByCurrentThread() {
+        return lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * Returns how many times the lock has been taken.
+     */
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    /**
+     * Returns how many times the lock was held by another thread when it was requested.
+     */
+    public long getContentions() {
+        return contentions.get();
+    }
+
+    /**
+     * Returns the overall time spent waiting for the lock, in milliseconds.
+     */
+    public long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    @Override
+    public String toString() {
+        return "CommitLock[acquisitions=" + getAcquisitions() + ", contentions=" + getContentions() + ", waitMillis="
+                + getWaitMillis() + "]";
+    }
+}
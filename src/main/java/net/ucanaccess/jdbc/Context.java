@@ -18,6 +18,7 @@ package net.ucanaccess.jdbc;
 public class Context {
     private UcanaccessConnection currentConnection;
     private String               currentExecId;
+    private boolean              query;
 
     public Context(UcanaccessConnection _currentConnection) {
         this.currentConnection = _currentConnection;
@@ -39,4 +40,12 @@ public class Context {
         this.currentExecId = _currentExecId;
     }
 
+    public boolean isQuery() {
+        return query;
+    }
+
+    public void setQuery(boolean _query) {
+        this.query = _query;
+    }
+
 }
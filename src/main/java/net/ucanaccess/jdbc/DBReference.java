@@ -43,7 +43,10 @@ import com.healthmarketscience.jackcess.Table;
 import com.healthmarketscience.jackcess.Table.ColumnOrder;
 import com.healthmarketscience.jackcess.util.LinkResolver;
 
+import net.ucanaccess.converters.ConversionContext;
 import net.ucanaccess.converters.LoadJet;
+import net.ucanaccess.converters.PivotCache;
+import net.ucanaccess.triggers.TriggerTableCache;
 import net.ucanaccess.util.Logger;
 
 public class DBReference {
@@ -79,10 +82,23 @@ public class DBReference {
     private boolean                                     mirrorReadOnly;
     private Integer                                     lobScale;
     private boolean                                     skipIndexes;
+    private int                                         loadingThreads;
+    private boolean                                     bulkLoad;
+    private boolean                                     lazyLoading;
+    private volatile LoadJet                            loader;
+    private List<String>                                loadingStatistics = new ArrayList<String>();
     private boolean                                     sysSchema;
     private boolean                                     preventReloading;
     private boolean                                     concatNulls;
     private boolean                                     mirrorRecreated;
+    private volatile WriteBehind                        writeBehind;
+    private int                                         spillThreshold;
+    private final CommitLock                            commitLock        = new CommitLock();
+    private final GroupCommit                           groupCommit       = new GroupCommit(this);
+    private final TriggerTableCache                     triggerTables     = new TriggerTableCache();
+    private final ConversionContext                     conversionContext = new ConversionContext();
+    private final SQLConversionCache                    sqlConversions    = new SQLConversionCache(conversionContext);
+    private final PivotCache                            pivots            = new PivotCache();
 
     private static class MemoryTimer {
         private static final long INACTIVITY_TIMEOUT_DEFAULT = 120000;
@@ -114,7 +130,7 @@ public class DBReference {
                     TimerTask task = new TimerTask() {
                         @Override
                         public void run() {
-                            synchronized (UcanaccessDriver.class) {
+                            synchronized (DBReferenceSingleton.getInstance().getLock(dbReference.getDbFile())) {
                                 if (System.currentTimeMillis() - getLastConnectionTime() >= inactivityTimeout
                                         && getActiveConnection() == 0) {
                                     try {
@@ -206,9 +222,28 @@ public class DBReference {
         return ret;
     }
 
+    /**
+     * Opens the database file once more, read-only, so that a loading thread can read its tables without waiting for
+     * the others. Returns null if a custom opener is in use, as it can't be asked for a read-only instance.
+     */
+    public Database openReadOnly() throws IOException {
+        if (!(this.jko instanceof DefaultJackcessOpener)) {
+            return null;
+        }
+        Logger.turnOffJackcessLog();
+        DatabaseBuilder dbd = new DatabaseBuilder(this.dbFile);
+        dbd.setAutoSync(false);
+        dbd.setReadOnly(true);
+        Database ret = dbd.open();
+        if (this.columnOrderDisplay) {
+            ret.setColumnOrder(ColumnOrder.DISPLAY);
+        }
+        return ret;
+    }
+
     boolean loadedFromKeptMirror(Session session) throws UcanaccessSQLException {
         if (this.toKeepHsql != null && this.toKeepHsql.exists()) {
-            if (this.getLastUpdateHSQLDB() >= this.dbFile.lastModified()) {
+            if (this.getLastUpdateHSQLDB() >= this.dbFile.lastModified() || reuseKeptMirror(session)) {
                 return true;
             } else {
                 try {
@@ -222,6 +257,32 @@ public class DBReference {
         return false;
     }
 
+    /**
+     * Reuses a kept mirror older than the Access database, reloading only the tables changed since the mirror was
+     * saved, as long as no table, query or relationship has been modified in the meantime.
+     */
+    private boolean reuseKeptMirror(Session session) {
+        if (this.mirrorReadOnly) {
+            return false;
+        }
+        try {
+            if (checkInside(getLastUpdateHSQLDB())) {
+                return false;
+            }
+            LoadJet lj = new LoadJet(getHSQLDBConnection(session), this.dbIO);
+            lj.setConversionContext(this.conversionContext);
+            if (lj.reuseMirror()) {
+                this.loadingStatistics = lj.getLoadingStatistics();
+                this.loader = lj;
+                return true;
+            }
+        } catch (Exception e) {
+            Logger.logWarning(e.getMessage());
+        }
+        this.firstConnection = true;
+        return false;
+    }
+
     public static boolean addOnReloadRefListener(OnReloadReferenceListener action) {
         return onReloadListeners.add(action);
     }
@@ -244,7 +305,11 @@ public class DBReference {
 
     Connection checkLastModified(Connection conn, Session session) throws Exception {
         // I'm detecting if another process(and not another thread) is writing
-
+        WriteBehind wb = this.writeBehind;
+        if (wb != null && wb.isPending()) {
+            // the file is being written by this process
+            return conn;
+        }
         for (int i = 0; i < Thread.activeCount(); i++) {
             if (lastModified >= filesUpdateTime()) {
                 return conn;
@@ -252,26 +317,67 @@ public class DBReference {
                 Thread.sleep(10);
             }
         }
-        if (preventReloading && !checkInside()) {
+        boolean schemaChanged = checkInside();
+        if (preventReloading && !schemaChanged) {
             return conn;
         }
         this.updateLastModified();
-        this.closeHSQLDB(session);
-        System.gc();
-        this.dbIO.flush();
-        this.dbIO.close();
-        this.dbIO = open(this.dbFile, this.pwd);
-        this.id = id();
-        this.firstConnection = true;
-        LoadJet lj = new LoadJet(getHSQLDBConnection(session), dbIO);
-        lj.setSkipIndexes(this.skipIndexes);
-        lj.setSysSchema(this.sysSchema);
-        lj.loadDB();
+        this.pivots.clear();
+        // the lazy loading of the tables takes the same lock
+        commitLock.lock();
+        try {
+            if (!schemaChanged && refreshChangedTables(session)) {
+                return conn;
+            }
+            this.closeHSQLDB(session);
+            this.sqlConversions.clear();
+            this.conversionContext.metadataChanged();
+            System.gc();
+            this.dbIO.flush();
+            this.dbIO.close();
+            this.dbIO = open(this.dbFile, this.pwd);
+            this.id = id();
+            this.firstConnection = true;
+            LoadJet lj = new LoadJet(getHSQLDBConnection(session), dbIO);
+            lj.setConversionContext(this.conversionContext);
+            lj.setSkipIndexes(this.skipIndexes);
+            lj.setSysSchema(this.sysSchema);
+            lj.setLoadingThreads(this.loadingThreads, this, session);
+            lj.setBulkLoad(this.bulkLoad);
+            if (this.lazyLoading) {
+                lj.setLazyLoading(true, this, session);
+            }
+            lj.loadDB();
+            this.loadingStatistics = lj.getLoadingStatistics();
+            this.loader = lj;
+        } finally {
+            commitLock.unlock();
+        }
 
         return getHSQLDBConnection(session);
     }
 
-    private boolean checkInside(Database db) throws IOException {
+    /**
+     * Reloads in the mirror only the tables modified by the other process, as long as their structure hasn't changed.
+     * Returns false if the whole mirror has to be reloaded. The caller must hold the commit lock.
+     */
+    private boolean refreshChangedTables(Session session) {
+        LoadJet lj = this.loader;
+        if (lj == null) {
+            return false;
+        }
+        try {
+            this.reloadDbIO();
+            boolean refreshed = lj.refreshTables(getHSQLDBConnection(session), this.dbIO);
+            this.loadingStatistics = lj.getLoadingStatistics();
+            return refreshed;
+        } catch (Exception e) {
+            Logger.logWarning(e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean checkInside(Database db, long since) throws IOException {
         Table t = db.getSystemTable("MSysObjects");
         Iterator<Row> it = t.iterator();
 
@@ -287,7 +393,7 @@ public class DBReference {
             Date dt = (Date) dobj;
 
             short type = (Short) tobj;
-            if (lastModified < dt.getTime() && (type == 1 || type == 5 || type == 8)
+            if (since < dt.getTime() && (type == 1 || type == 5 || type == 8)
 
             ) {
                 return true;
@@ -298,14 +404,18 @@ public class DBReference {
     }
 
     private boolean checkInside() throws IOException {
+        return checkInside(this.lastModified);
+    }
+
+    private boolean checkInside(long since) throws IOException {
 
-        boolean reload = checkInside(this.dbIO);
+        boolean reload = checkInside(this.dbIO, since);
         if (reload) {
             return true;
         }
         for (File fl : this.links) {
             Database db = DatabaseBuilder.open(fl);
-            reload = checkInside(db);
+            reload = checkInside(db, since);
             db.close();
             if (reload) {
                 return true;
@@ -611,6 +721,9 @@ public class DBReference {
     public void reloadDbIO() throws IOException {
         this.dbIO.flush();
         this.dbIO.close();
+        this.sqlConversions.clear();
+        this.conversionContext.metadataChanged();
+        this.pivots.clear();
         for (OnReloadReferenceListener listener : onReloadListeners) {
             listener.onReload();
         }
@@ -642,6 +755,9 @@ public class DBReference {
             }
         }
         this.memoryTimer.timer.cancel();
+        if (this.writeBehind != null) {
+            this.writeBehind.stop();
+        }
         this.dbIO.flush();
         this.dbIO.close();
         this.closeHSQLDB(_session);
@@ -716,6 +832,103 @@ public class DBReference {
         this.sysSchema = _sysSchema;
     }
 
+    public void setLoadingThreads(int _loadingThreads) {
+        this.loadingThreads = _loadingThreads;
+    }
+
+    public void setBulkLoad(boolean _bulkLoad) {
+        this.bulkLoad = _bulkLoad;
+    }
+
+    public void setLazyLoading(boolean _lazyLoading) {
+        this.lazyLoading = _lazyLoading;
+    }
+
+    public void setLoader(LoadJet _loader) {
+        this.loader = _loader;
+    }
+
+    public void setWriteBehind(boolean _writeBehind) {
+        this.writeBehind = _writeBehind ? new WriteBehind(this.dbFile.getName(), this.commitLock) : null;
+    }
+
+    public void setSpillThreshold(int _spillThreshold) {
+        this.spillThreshold = _spillThreshold;
+    }
+
+    /**
+     * Returns the kilobytes of binary and text values a pending transaction keeps in memory before moving them to a
+     * spill file, 0 if they are always kept in memory.
+     */
+    int getSpillThreshold() {
+        return this.spillThreshold;
+    }
+
+    /**
+     * Returns the writer of the committed transactions, or null unless the writeBehind property is set.
+     */
+    WriteBehind getWriteBehind() {
+        return this.writeBehind;
+    }
+
+    CommitLock getCommitLock() {
+        return this.commitLock;
+    }
+
+    GroupCommit getGroupCommit() {
+        return this.groupCommit;
+    }
+
+    TriggerTableCache getTriggerTables() {
+        return this.triggerTables;
+    }
+
+    SQLConversionCache getSQLConversions() {
+        return this.sqlConversions;
+    }
+
+    PivotCache getPivotCache() {
+        return this.pivots;
+    }
+
+    public ConversionContext getConversionContext() {
+        return this.conversionContext;
+    }
+
+    /**
+     * Loads into the mirror the tables referenced by the given SQL statement which haven't been loaded yet. It's a
+     * no-op unless the lazyLoading property is set.
+     */
+    public void loadReferencedTables(String _sql) throws SQLException {
+        LoadJet lj = this.loader;
+        if (!this.lazyLoading || lj == null || _sql == null || lj.getUnloadedTables(_sql).isEmpty()) {
+            return;
+        }
+        commitLock.lock();
+        try {
+            // checked again, as another connection may have loaded the tables or the mirror may have been reloaded
+            lj = this.loader;
+            Set<String> tables = lj.getUnloadedTables(_sql);
+            if (tables.isEmpty()) {
+                return;
+            }
+            lj.loadLazily(tables, this.dbIO);
+            this.loadingStatistics = lj.getLoadingStatistics();
+        } catch (IOException e) {
+            throw new UcanaccessSQLException(e);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    public List<String> getLoadingStatistics() {
+        return loadingStatistics;
+    }
+
+    public void setLoadingStatistics(List<String> _loadingStatistics) {
+        this.loadingStatistics = _loadingStatistics;
+    }
+
     public boolean isPreventReloading() {
         return preventReloading;
     }
@@ -17,27 +17,68 @@ package net.ucanaccess.jdbc;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.healthmarketscience.jackcess.Database.FileFormat;
 
 public final class DBReferenceSingleton {
-    private static DBReferenceSingleton singletonObject;
-    private Map<String, DBReference>    dbRegistry = Collections.synchronizedMap(new HashMap<String, DBReference>());
+    private static final DBReferenceSingleton singletonObject = new DBReferenceSingleton();
+    private Map<String, DBReference>          dbRegistry      = Collections.synchronizedMap(new HashMap<String, DBReference>());
+    // guarded by itself, the locks no thread holds or waits for are released by the garbage collector
+    private final Map<String, LockReference>  locks           = new HashMap<String, LockReference>();
+    private final ReferenceQueue<Object>      releasedLocks   = new ReferenceQueue<Object>();
+    // keeps the locks of the registered databases until they are removed
+    private final Map<String, Object>         registeredLocks = new ConcurrentHashMap<String, Object>();
+
+    private static final class LockReference extends WeakReference<Object> {
+        private final String path;
+
+        private LockReference(String _path, Object _lock, ReferenceQueue<Object> _queue) {
+            super(_lock, _queue);
+            this.path = _path;
+        }
+    }
 
     private DBReferenceSingleton() {
     }
 
     public static DBReferenceSingleton getInstance() {
-        if (singletonObject == null) {
-            singletonObject = new DBReferenceSingleton();
-        }
         return singletonObject;
     }
 
+    /**
+     * Returns the monitor guarding the loading, reloading and unloading of the given database file, so that
+     * connections to different files don't wait for each other.
+     */
+    public Object getLock(File fl) {
+        return getLock(fl.getAbsolutePath());
+    }
+
+    private Object getLock(String path) {
+        synchronized (locks) {
+            for (Reference<?> ref = releasedLocks.poll(); ref != null; ref = releasedLocks.poll()) {
+                LockReference released = (LockReference) ref;
+                if (locks.get(released.path) == released) {
+                    locks.remove(released.path);
+                }
+            }
+            LockReference ref = locks.get(path);
+            Object lock = ref == null ? null : ref.get();
+            if (lock == null) {
+                lock = new Object();
+                locks.put(path, new LockReference(path, lock, releasedLocks));
+            }
+            return lock;
+        }
+    }
+
     public DBReference getReference(File ref) {
         return dbRegistry.get(ref.getAbsolutePath());
     }
@@ -53,11 +94,13 @@ public final class DBReferenceSingleton {
     }
 
     public DBReference put(String path, DBReference dbr) {
+        registeredLocks.put(path, getLock(path));
         return dbRegistry.put(path, dbr);
     }
 
     public DBReference remove(String path) throws IOException, SQLException {
-        synchronized (UcanaccessDriver.class) {
+        synchronized (getLock(path)) {
+            registeredLocks.remove(path);
             return dbRegistry.remove(path);
         }
     }
@@ -0,0 +1,140 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.jdbc;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.ucanaccess.commands.ICommand;
+
+/**
+ * Commits together the transactions of the connections sharing a {@link DBReference}: the first committer becomes
+ * the leader and writes to the Access file all the transactions queued meanwhile, with a single flush. Each committer
+ * gets its own outcome.
+ */
+final class GroupCommit {
+    private final DBReference         ref;
+    private final LinkedList<Request> queue = new LinkedList<Request>();
+    private boolean                   leading;
+
+    private static final class Request {
+        private final UcanaccessConnection conn;
+        private final List<ICommand>       commands;
+        private SQLException               failure;
+        private boolean                    unload;
+        private boolean                    done;
+
+        private Request(UcanaccessConnection _conn, List<ICommand> _commands) {
+            this.conn = _conn;
+            this.commands = _commands;
+        }
+    }
+
+    GroupCommit(DBReference _ref) {
+        this.ref = _ref;
+    }
+
+    /**
+     * Writes the commands of the connection to the Access file and commits its HSQLDB transaction, unless they fail.
+     */
+    void commit(UcanaccessConnection _conn, List<ICommand> _commands) throws SQLException {
+        Request request = new Request(_conn, _commands);
+        List<Request> batch = null;
+        boolean interrupted = false;
+        synchronized (this) {
+            queue.add(request);
+            while (leading && !request.done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    // the request is already queued: it is going to be written anyway
+                    interrupted = true;
+                }
+            }
+            if (!request.done) {
+                leading = true;
+                batch = new ArrayList<Request>(queue);
+                queue.clear();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (batch != null) {
+            try {
+                write(batch);
+            } finally {
+                synchronized (this) {
+                    for (Request r : batch) {
+                        r.done = true;
+                    }
+                    leading = false;
+                    notifyAll();
+                }
+            }
+        }
+        if (request.unload) {
+            _conn.unloadDB();
+        }
+        if (request.failure != null) {
+            throw request.failure;
+        }
+    }
+
+    private void write(List<Request> _batch) {
+        CommitLock lock = ref.getCommitLock();
+        lock.lock();
+        try {
+            for (Request r : _batch) {
+                UcanaccessConnection.setCtxConnection(r.conn);
+                try {
+                    r.conn.persistCommands(r.commands, false);
+                } catch (SQLException e) {
+                    r.failure = e;
+                    r.unload = true;
+                } catch (RuntimeException e) {
+                    r.failure = new UcanaccessSQLException(e);
+                    r.unload = true;
+                }
+            }
+            UcanaccessConnection.setCtxConnection(null);
+            try {
+                ref.getDbIO().flush();
+            } catch (IOException e) {
+                for (Request r : _batch) {
+                    if (r.failure == null) {
+                        r.failure = new UcanaccessSQLException(e);
+                    }
+                }
+            }
+            for (Request r : _batch) {
+                if (r.failure == null) {
+                    try {
+                        r.conn.getHSQLDBConnection().commit();
+                    } catch (SQLException e) {
+                        r.failure = e;
+                    }
+                }
+            }
+            ref.updateLastModified();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
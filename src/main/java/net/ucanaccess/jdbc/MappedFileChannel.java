@@ -0,0 +1,164 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.jdbc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * File channel reading through a read-only mapping of the file, and writing through the underlying channel. The
+ * mapping is shared with the file, so it reflects the writes. The pages appended after it was made are read through
+ * the underlying channel, until the file has grown enough to be mapped again.
+ */
+final class MappedFileChannel extends FileChannel {
+    private final FileChannel channel;
+    private MappedByteBuffer  mapped;
+    private long              position;
+
+    MappedFileChannel(FileChannel _channel) throws IOException {
+        this.channel = _channel;
+        map();
+    }
+
+    private void map() throws IOException {
+        this.mapped = this.channel.map(MapMode.READ_ONLY, 0, this.channel.size());
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long pos) throws IOException {
+        MappedByteBuffer buffer = this.mapped;
+        int len = dst.remaining();
+        if (pos + len > buffer.capacity()) {
+            long size = this.channel.size();
+            if (size - buffer.capacity() > buffer.capacity() / 16 && size <= Integer.MAX_VALUE) {
+                map();
+                return read(dst, pos);
+            }
+            return this.channel.read(dst, pos);
+        }
+        ByteBuffer src = buffer.duplicate();
+        src.position((int) pos);
+        src.limit((int) pos + len);
+        dst.put(src);
+        return len;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int read = read(dst, this.position);
+        if (read > 0) {
+            this.position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        long read = 0;
+        for (int i = offset; i < offset + length; i++) {
+            int n = read(dsts[i]);
+            if (n < 0) {
+                return read == 0 ? -1 : read;
+            }
+            read += n;
+        }
+        return read;
+    }
+
+    @Override
+    public int write(ByteBuffer src, long pos) throws IOException {
+        return this.channel.write(src, pos);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int written = this.channel.write(src, this.position);
+        this.position += written;
+        return written;
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long written = 0;
+        for (int i = offset; i < offset + length; i++) {
+            written += write(srcs[i]);
+        }
+        return written;
+    }
+
+    @Override
+    public long position() throws IOException {
+        return this.position;
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        return this.channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+        this.channel.truncate(size);
+        map();
+        return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+        this.channel.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long pos, long count, WritableByteChannel target) throws IOException {
+        return this.channel.transferTo(pos, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long pos, long count) throws IOException {
+        return this.channel.transferFrom(src, pos, count);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long pos, long size) throws IOException {
+        return this.channel.map(mode, pos, size);
+    }
+
+    @Override
+    public FileLock lock(long pos, long size, boolean shared) throws IOException {
+        return this.channel.lock(pos, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long pos, long size, boolean shared) throws IOException {
+        return this.channel.tryLock(pos, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,63 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.jdbc;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.impl.DatabaseImpl;
+import com.healthmarketscience.jackcess.impl.DefaultCodecProvider;
+import com.healthmarketscience.jackcess.impl.JetFormat;
+
+/**
+ * Opens the Access database through a memory-mapped channel, so that the pages read while loading the mirror or
+ * scanning indexes are copied straight from the OS page cache. Writes still go through the file channel. Files too
+ * large to be mapped, and the read-only Access 97 format, are opened by the {@link DefaultJackcessOpener}.
+ * <p>
+ * Usage: <i>jdbc:ucanaccess://C:/db/main.accdb;jackcessOpener=net.ucanaccess.jdbc.MappedJackcessOpener</i>
+ */
+public class MappedJackcessOpener implements JackcessOpenerInterface {
+
+    @Override
+    public Database open(File fl, String pwd) throws IOException {
+        if (!fl.exists() || fl.length() > Integer.MAX_VALUE) {
+            return new DefaultJackcessOpener().open(fl, pwd);
+        }
+        FileChannel channel = new RandomAccessFile(fl, fl.canWrite() ? "rw" : "r").getChannel();
+        try {
+            if (JetFormat.getFormat(channel).READ_ONLY) {
+                channel.close();
+                return new DefaultJackcessOpener().open(fl, pwd);
+            }
+            return new MappedDatabase(fl, new MappedFileChannel(channel));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Jackcess leaves open the channels it is given, while this one must be closed with the database.
+     */
+    private static final class MappedDatabase extends DatabaseImpl {
+        private MappedDatabase(File fl, FileChannel channel) throws IOException {
+            super(fl, channel, true, false, null, null, null, DefaultCodecProvider.INSTANCE);
+        }
+    }
+}
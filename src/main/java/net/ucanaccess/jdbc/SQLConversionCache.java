@@ -0,0 +1,146 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.jdbc;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ucanaccess.converters.ConversionContext;
+import net.ucanaccess.converters.Pivot;
+import net.ucanaccess.converters.SQLConverter;
+
+/**
+ * Keeps, for the connections to a database, the conversions of the most recently used statements, so that a
+ * statement run again isn't converted again. It's emptied when a DDL statement is executed, when the Access file is
+ * reopened, and whenever the names or settings the conversion depends on change.
+ */
+public final class SQLConversionCache {
+    private static final int CAPACITY = 500;
+
+    // a conversion is only served for the statement, the context and the generation it was made with
+    private static final class Key {
+        private final String            sql;
+        private final ConversionContext context;
+        private final long              generation;
+
+        private Key(String _sql, ConversionContext _context, long _generation) {
+            this.sql = _sql;
+            this.context = _context;
+            this.generation = _generation;
+        }
+
+        @Override
+        public boolean equals(Object _obj) {
+            if (!(_obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) _obj;
+            return context == other.context && generation == other.generation && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + (int) (generation ^ (generation >>> 32));
+        }
+    }
+
+    private final Map<Key, NormalizedSQL>    conversions =
+            new LinkedHashMap<Key, NormalizedSQL>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, NormalizedSQL> _eldest) {
+                    return size() > CAPACITY;
+                }
+            };
+    private final AtomicLong                 hits        = new AtomicLong();
+    private final AtomicLong                 misses      = new AtomicLong();
+    private final ConversionContext          context;
+    private long                             generation  = -1;
+
+    SQLConversionCache(ConversionContext _context) {
+        this.context = _context;
+    }
+
+    NormalizedSQL convert(String _sql, UcanaccessConnection _conn) {
+        long gen = SQLConverter.getGeneration(context);
+        NormalizedSQL cached;
+        synchronized (this) {
+            if (gen != generation) {
+                conversions.clear();
+                generation = gen;
+            }
+            cached = conversions.get(new Key(_sql, context, gen));
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            // the pivot views are rebuilt if their source tables have changed
+            Pivot.checkAndRefreshPivot(cached.getSql() + " ", _conn);
+            return copy(cached);
+        }
+        misses.incrementAndGet();
+        // converted against the names of this database, even for the statements run without a connection context
+        NormalizedSQL nsql;
+        ConversionContext previous = context.bind();
+        try {
+            nsql = SQLConverter.convertSQL(_sql, _conn);
+        } finally {
+            ConversionContext.restore(previous);
+        }
+        synchronized (this) {
+            // a conversion which changed the names it depends on isn't kept
+            if (gen == generation && gen == SQLConverter.getGeneration(context)) {
+                conversions.put(new Key(_sql, context, gen), copy(nsql));
+            }
+        }
+        return nsql;
+    }
+
+    private static NormalizedSQL copy(NormalizedSQL _nsql) {
+        NormalizedSQL copy = new NormalizedSQL();
+        copy.setSql(_nsql.getSql());
+        copy.getAliases().putAll(_nsql.getAliases());
+        return copy;
+    }
+
+    public synchronized void clear() {
+        conversions.clear();
+    }
+
+    /**
+     * Returns how many statements have been found in the cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many statements have been converted.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public synchronized int size() {
+        return conversions.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SQLConversionCache[hits=" + getHits() + ", misses=" + getMisses() + ", size=" + size() + "]";
+    }
+}
@@ -42,6 +42,7 @@ import java.util.Properties;
 import java.util.concurrent.Executor;
 
 import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.Table;
 
 import org.hsqldb.jdbc.JDBCConnection;
 
@@ -50,9 +51,16 @@ import net.ucanaccess.commands.ICommand;
 import net.ucanaccess.commands.ICommand.TYPES;
 import net.ucanaccess.commands.ICursorCommand;
 import net.ucanaccess.commands.IFeedbackAction;
+import net.ucanaccess.commands.InsertBatchCommand;
+import net.ucanaccess.commands.InsertCommand;
+import net.ucanaccess.commands.RowLocator;
+import net.ucanaccess.commands.SpillFile;
+import net.ucanaccess.converters.ConversionContext;
 import net.ucanaccess.converters.LoadJet;
+import net.ucanaccess.converters.PivotCache;
 import net.ucanaccess.converters.SQLConverter;
 import net.ucanaccess.jdbc.UcanaccessSQLException.ExceptionMessages;
+import net.ucanaccess.triggers.TriggerTableCache;
 import net.ucanaccess.util.Logger;
 
 public class UcanaccessConnection implements Connection {
@@ -73,32 +81,53 @@ public class UcanaccessConnection implements Connection {
     private UcanaccessStatement currentStatement;
     private Object              lastGeneratedKey;
     private String              refId;
+    private SpillFile           spillFile;
+    private long                pendingSize;
 
     static final String BATCH_ID = "BATCH_ID";
+    // values smaller than this are never spilled
+    private static final int SPILL_MIN_SIZE = 1024;
 
-    public static synchronized UcanaccessConnection getCtxConnection() {
+    public static UcanaccessConnection getCtxConnection() {
         if (ctx == null) {
             return null;
         }
         return ctx.get().getCurrentConnection();
     }
 
-    public static synchronized boolean hasContext() {
+    public static boolean hasContext() {
         return ctx.get() != null;
     }
 
-    public static synchronized String getCtxExcId() {
+    public static String getCtxExcId() {
         return ctx.get().getCurrentExecId();
     }
 
-    public static synchronized void setCtxConnection(UcanaccessConnection conn) {
+    public static void setCtxConnection(UcanaccessConnection conn) {
         ctx.set(new Context(conn));
     }
 
-    public static synchronized void setCtxExecId(String id) {
+    public static void setCtxExecId(String id) {
         ctx.get().setCurrentExecId(id);
     }
 
+    /**
+     * Tells whether the current thread is running executeQuery, so that the triggers can reject DML statements.
+     */
+    public static boolean isCtxQuery() {
+        Context c = ctx.get();
+        return c != null && c.isQuery();
+    }
+
+    static void setCtxQuery(boolean _query) {
+        Context c = ctx.get();
+        if (c == null) {
+            c = new Context(null);
+            ctx.set(c);
+        }
+        c.setQuery(_query);
+    }
+
     public UcanaccessConnection(DBReference _ref, Properties _clientInfo, Session _session) throws UcanaccessSQLException {
         try {
             this.ref = _ref;
@@ -150,12 +179,17 @@ public class UcanaccessConnection implements Connection {
     }
 
     public void reloadDbIO() throws IOException {
-        synchronized (UcanaccessConnection.class) {
+        CommitLock lock = this.ref.getCommitLock();
+        lock.lock();
+        try {
             this.ref.reloadDbIO();
+        } finally {
+            lock.unlock();
         }
     }
 
     public synchronized boolean add(ICommand c4io) {
+        tableChanged(c4io);
         if (c4io.getType().equals(TYPES.UPDATE) || c4io.getType().equals(TYPES.DELETE)) {
             ICommand last = commands.size() > 0 ? commands.getLast() : null;
             ICursorCommand c4ioc = (ICursorCommand) c4io;
@@ -167,10 +201,37 @@ public class UcanaccessConnection implements Connection {
                 cc4io.add(c4ioc);
                 c4io = cc4io;
             }
+        } else if (c4io.getType().equals(TYPES.INSERT) && this.ref.getSpillThreshold() > 0) {
+            spill((InsertCommand) c4io);
         }
         return commands.add(c4io);
     }
 
+    // the crosstab views reading from the table of a data command have to be rebuilt
+    private void tableChanged(ICommand _command) {
+        if (!_command.getType().equals(TYPES.DDL)) {
+            this.ref.getPivotCache().tableChanged(_command.getTableName());
+        }
+    }
+
+    // once the pending inserts hold more values than the threshold, the large values of the following ones are
+    // moved to a temporary file until the transaction ends
+    private void spill(InsertCommand _command) {
+        if (this.pendingSize <= this.ref.getSpillThreshold() * 1024L) {
+            this.pendingSize += _command.getValuesSize();
+            return;
+        }
+        try {
+            if (this.spillFile == null) {
+                this.spillFile = new SpillFile();
+            }
+            _command.spill(this.spillFile, SPILL_MIN_SIZE);
+        } catch (IOException e) {
+            // the values stay in memory
+            this.pendingSize += _command.getValuesSize();
+        }
+    }
+
     @Override
     public void clearWarnings() throws SQLException {
         this.warnings = null;
@@ -179,40 +240,143 @@ public class UcanaccessConnection implements Connection {
     @Override
     public void close() throws SQLException {
         try {
-            hsqlDBConnection.close();
-            ref.decrementActiveConnection(this.session);
+            this.sync();
+        } finally {
+            try {
+                deleteSpillFile();
+                hsqlDBConnection.close();
+                ref.decrementActiveConnection(this.session);
 
-        } catch (SQLException e) {
-            throw new UcanaccessSQLException(e);
+            } catch (SQLException e) {
+                throw new UcanaccessSQLException(e);
+            }
         }
     }
 
     @Override
     public void commit() throws SQLException {
-        synchronized (this.getClass()) {
-
-            try {
-                if (this.isReadOnly() && this.commands.size() > 0) {
-                    this.rollback();
-                    if (this.ref.isReadOnlyFileFormat()) {
-                        throw new UcanaccessSQLException(ExceptionMessages.ACCESS_97);
-                    }
-                    throw new UcanaccessSQLException(ExceptionMessages.CONCURRENT_PROCESS_ACCESS);
+        WriteBehind writer = this.ref.getWriteBehind();
+        if (writer != null && !this.commands.isEmpty() && !this.isReadOnly()) {
+            // the writer would read the spill file after the transaction has ended
+            if (!containsDDL(this.commands) && this.spillFile == null) {
+                this.commitBehind(writer);
+                return;
+            }
+            this.sync();
+        }
+        try {
+            if (this.isReadOnly() && this.commands.size() > 0) {
+                this.rollback();
+                if (this.ref.isReadOnlyFileFormat()) {
+                    throw new UcanaccessSQLException(ExceptionMessages.ACCESS_97);
                 }
+                throw new UcanaccessSQLException(ExceptionMessages.CONCURRENT_PROCESS_ACCESS);
+            }
 
-                this.flushIO();
+            if (this.commands.isEmpty()) {
                 hsqlDBConnection.commit();
-                if (commands.size() > 0) {
-                    this.ref.updateLastModified();
-                }
+            } else {
+                this.ref.getGroupCommit().commit(this, this.commands);
+            }
+
+        } catch (SQLException e) {
+            throw new UcanaccessSQLException(e);
+        } finally {
+            finalizeEnlistedResources();
+            this.checkModified = true;
+        }
+    }
 
+    // HSQLDB is committed at once, the Access file is written later by the writer of the DBReference
+    private void commitBehind(WriteBehind _writer) throws SQLException {
+        try {
+            _writer.reserve();
+        } catch (SQLException e) {
+            hsqlDBConnection.rollback();
+            finalizeEnlistedResources();
+            throw writeBehindFailure(_writer, e);
+        }
+        boolean reserved = true;
+        CommitLock lock = this.ref.getCommitLock();
+        lock.lock();
+        try {
+            hsqlDBConnection.commit();
+            reserved = false;
+            _writer.enqueue(this, new ArrayList<ICommand>(this.commands));
+        } catch (SQLException e) {
+            throw new UcanaccessSQLException(e);
+        } finally {
+            lock.unlock();
+            if (reserved) {
+                _writer.cancel();
+            }
+            finalizeEnlistedResources();
+            this.checkModified = true;
+        }
+    }
+
+    private static boolean containsDDL(List<ICommand> _commands) {
+        for (ICommand command : _commands) {
+            if (command.getType().equals(TYPES.DDL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Called by the write-behind writer: writes to the Access file a transaction already committed in HSQLDB.
+     */
+    void applyCommands(List<ICommand> _commands) throws SQLException {
+        CommitLock lock = this.ref.getCommitLock();
+        lock.lock();
+        setCtxConnection(this);
+        try {
+            try {
+                this.persistCommands(_commands, true);
             } catch (SQLException e) {
-                throw new UcanaccessSQLException(e);
-            } finally {
-                finalizeEnlistedResources();
-                this.checkModified = true;
+                // the database is unloaded by the first commit or sync reporting the failure
+                this.ref.getDbIO().flush();
+                throw e;
+            }
+            this.ref.getDbIO().flush();
+            this.ref.updateLastModified();
+        } catch (IOException e) {
+            throw new UcanaccessSQLException(e);
+        } finally {
+            setCtxConnection(null);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every transaction committed so far has been written to the Access file. It returns at once unless
+     * the writebehind connection property is set.
+     *
+     * @throws SQLException
+     *             if a transaction couldn't be written: in this case the database has been unloaded
+     */
+    public void sync() throws SQLException {
+        WriteBehind writer = this.ref.getWriteBehind();
+        if (writer != null) {
+            try {
+                writer.sync();
+            } catch (SQLException e) {
+                throw writeBehindFailure(writer, e);
+            }
+        }
+    }
+
+    // the mirror holds transactions that never reached the Access file: it must be reloaded
+    private SQLException writeBehindFailure(WriteBehind _writer, SQLException e) {
+        if (_writer.reportFailure()) {
+            try {
+                this.unloadDB();
+            } catch (SQLException ue) {
+                e.setNextException(ue);
             }
         }
+        return e;
     }
 
     @Override
@@ -299,17 +463,24 @@ public class UcanaccessConnection implements Connection {
         }
     }
 
-    private void flushIO() throws SQLException {
+    /**
+     * Writes the commands of a transaction to the Access file, without flushing it. If one of them fails, the ones
+     * already written are rolled back, and so is the HSQLDB transaction unless it has already been committed.
+     */
+    void persistCommands(List<ICommand> _commands, boolean _behind) throws SQLException {
         List<IFeedbackAction> ibal = new ArrayList<IFeedbackAction>();
         LinkedList<ICommand> executed = new LinkedList<ICommand>();
+        Map<String, RowLocator> locators = new HashMap<String, RowLocator>();
 
         try {
 
-            for (ICommand command : commands) {
+            for (ICommand command : coalesceInserts(_commands)) {
                 for (IFeedbackAction ib : ibal) {
                     ib.doAction(command);
                 }
-                IFeedbackAction ib = command.persist();
+                bindRowLocator(command, locators);
+                IFeedbackAction ib = _behind && command.getType().equals(TYPES.INSERT)
+                        ? persistKeepingAutoNumbers(command) : command.persist();
                 executed.add(command);
                 if (ib != null) {
                     ibal.add(ib);
@@ -320,45 +491,113 @@ public class UcanaccessConnection implements Connection {
                 throw new RuntimeException("PhysicalRollbackTest");
             }
         } catch (Throwable t) {
+            rollbackCommands(executed, _behind);
+            throw new UcanaccessSQLException(t);
+        } finally {
+            // the Jackcess tables the triggers know of may have changed
+            if (containsDDL(_commands)) {
+                this.ref.getTriggerTables().clear();
+            }
+        }
+    }
+
+    private void rollbackCommands(LinkedList<ICommand> _executed, boolean _behind) throws SQLException {
+        List<IFeedbackAction> ibal = new ArrayList<IFeedbackAction>();
+        if (!_behind) {
             this.hsqlDBConnection.rollback();
-            ibal.clear();
-            Iterator<ICommand> it = executed.descendingIterator();
-            while (it.hasNext()) {
-                ICommand command = it.next();
-                for (IFeedbackAction ib : ibal) {
-                    ib.doAction(command);
-                }
-                IFeedbackAction ib = command.rollback();
+        }
+        Iterator<ICommand> it = _executed.descendingIterator();
+        while (it.hasNext()) {
+            ICommand command = it.next();
+            for (IFeedbackAction ib : ibal) {
+                ib.doAction(command);
+            }
+            IFeedbackAction ib = command.rollback();
 
-                if (ib != null) {
-                    ibal.add(ib);
-                }
+            if (ib != null) {
+                ibal.add(ib);
             }
-            this.ref.updateLastModified();
+        }
+        this.ref.getPivotCache().clear();
+        this.ref.getConversionContext().metadataChanged();
+        this.ref.updateLastModified();
+    }
+
+    // consecutive inserts into the same table are written to the Access file with a single Table.addRows
+    private List<ICommand> coalesceInserts(List<ICommand> _commands) {
+        List<ICommand> coalesced = new ArrayList<ICommand>(_commands.size());
+        InsertBatchCommand batch = null;
+        for (ICommand command : _commands) {
+            if (!command.getType().equals(TYPES.INSERT)) {
+                batch = null;
+                coalesced.add(command);
+            } else if (batch == null || !batch.add((InsertCommand) command)) {
+                batch = new InsertBatchCommand((InsertCommand) command);
+                coalesced.add(batch);
+            }
+        }
+        for (int i = 0; i < coalesced.size(); i++) {
+            ICommand command = coalesced.get(i);
+            if (command instanceof InsertBatchCommand && ((InsertBatchCommand) command).getInserts().size() == 1) {
+                coalesced.set(i, ((InsertBatchCommand) command).getInserts().get(0));
+            }
+        }
+        return coalesced;
+    }
+
+    // HSQLDB has already committed the AutoNumber values, so Access must keep them instead of generating its own;
+    // TriggerAutoNumber reads the same flag holding the lock of the Database
+    private IFeedbackAction persistKeepingAutoNumbers(ICommand command) throws SQLException, IOException {
+        InsertCommand ic = (command instanceof InsertBatchCommand) ? ((InsertBatchCommand) command).getInserts().get(0)
+                : (InsertCommand) command;
+        Table table = ic.getTable();
+        synchronized (this.ref.getDbIO()) {
+            boolean allow = table.isAllowAutoNumberInsert();
+            table.setAllowAutoNumberInsert(true);
             try {
-                this.ref.getDbIO().flush();
-                this.unloadDB();
-            } catch (IOException e) {
-                e.printStackTrace();
+                return command.persist();
+            } finally {
+                table.setAllowAutoNumberInsert(allow);
             }
-            throw new UcanaccessSQLException(t);
         }
-        try {
-            this.ref.getDbIO().flush();
+    }
 
-        } catch (IOException e) {
-            throw new UcanaccessSQLException(e);
+    // tables without a unique index share a RowLocator for the whole flush, as long as no other command
+    // changes them
+    private void bindRowLocator(ICommand command, Map<String, RowLocator> locators) {
+        if (command.getType().equals(TYPES.COMPOSITE)) {
+            CompositeCommand cc = (CompositeCommand) command;
+            if (!cc.getIndexSelector().isUniqueCursor()) {
+                RowLocator rl = locators.get(cc.getTableName());
+                if (rl == null) {
+                    rl = new RowLocator();
+                    locators.put(cc.getTableName(), rl);
+                }
+                cc.setRowLocator(rl);
+            }
+        } else if (command.getType().equals(TYPES.INSERT)) {
+            locators.remove(command.getTableName());
+        } else {
+            locators.clear();
         }
-
     }
 
     private void finalizeEnlistedResources() {
         commands.clear();
+        deleteSpillFile();
         this.savepointsMap.clear();
         setCtxConnection(null);
         setCtxExecId(null);
     }
 
+    private void deleteSpillFile() {
+        if (this.spillFile != null) {
+            this.spillFile.delete();
+            this.spillFile = null;
+        }
+        this.pendingSize = 0;
+    }
+
     @Override
     public boolean getAutoCommit() throws SQLException {
         return this.autoCommit;
@@ -387,6 +626,52 @@ public class UcanaccessConnection implements Connection {
         return this.ref.getDbIO();
     }
 
+    public TriggerTableCache getTriggerTables() {
+        return this.ref.getTriggerTables();
+    }
+
+    /**
+     * Returns the cache of the statements converted for the connections to this database, with its hit and miss
+     * counters.
+     */
+    public SQLConversionCache getSQLConversions() {
+        return this.ref.getSQLConversions();
+    }
+
+    /**
+     * Returns the record of when the crosstab views of this database were last rebuilt, and of the changes made to
+     * their source tables since.
+     */
+    public PivotCache getPivotCache() {
+        return this.ref.getPivotCache();
+    }
+
+    /**
+     * Returns the names the SQL conversion treats specially for the connections to this database.
+     */
+    public ConversionContext getConversionContext() {
+        return this.ref.getConversionContext();
+    }
+
+    NormalizedSQL convertSQL(String sql, UcanaccessConnection conn) {
+        return this.ref.getSQLConversions().convert(sql, conn);
+    }
+
+    /**
+     * Returns the lock serializing the writes to the Access file, together with its contention statistics.
+     */
+    public CommitLock getCommitLock() {
+        return this.ref.getCommitLock();
+    }
+
+    /**
+     * Returns the per-table statistics (rows, batch size, commits, throughput) collected while the mirror of the
+     * Access database was loaded.
+     */
+    public List<String> getLoadingStatistics() {
+        return this.ref.getLoadingStatistics();
+    }
+
     @Override
     public int getHoldability() throws SQLException {
         try {
@@ -482,7 +767,12 @@ public class UcanaccessConnection implements Connection {
 
     @Override
     public String nativeSQL(String sql) throws SQLException {
-        return SQLConverter.convertSQL(sql).getSql();
+        ConversionContext previous = getConversionContext().bind();
+        try {
+            return SQLConverter.convertSQL(sql).getSql();
+        } finally {
+            ConversionContext.restore(previous);
+        }
     }
 
     @Override
@@ -520,7 +810,13 @@ public class UcanaccessConnection implements Connection {
 
     private NormalizedSQL prepare(String sql) throws SQLException {
         checkConnection();
-        return SQLConverter.convertSQL(sql, this);
+        NormalizedSQL nsql = convertSQL(sql, this);
+        loadReferencedTables(nsql.getSql());
+        return nsql;
+    }
+
+    void loadReferencedTables(String sql) throws SQLException {
+        this.ref.loadReferencedTables(sql);
     }
 
     @Override
@@ -643,6 +939,9 @@ public class UcanaccessConnection implements Connection {
         } catch (SQLException e) {
             throw new UcanaccessSQLException(e);
         } finally {
+            for (ICommand c4io : commands) {
+                tableChanged(c4io);
+            }
             finalizeEnlistedResources();
             this.checkModified = true;
         }
@@ -659,6 +958,7 @@ public class UcanaccessConnection implements Connection {
             while (it.hasNext()) {
                 ICommand c4io = it.next();
                 if (remove && !c4io.getExecId().equals(lastId)) {
+                    tableChanged(c4io);
                     it.remove();
                 }
                 remove = remove || c4io.getExecId().equals(lastId);
@@ -784,7 +1084,7 @@ public class UcanaccessConnection implements Connection {
             if (!this.refId.equals(ref.getId())) {
                 this.hsqlDBConnection = ref.getHSQLDBConnection(session);
             }
-            synchronized (UcanaccessDriver.class) {
+            synchronized (DBReferenceSingleton.getInstance().getLock(this.ref.getDbFile())) {
                 this.hsqlDBConnection = this.ref.checkLastModified(this.hsqlDBConnection, session);
             }
             this.refId = ref.getId();
@@ -817,7 +1117,7 @@ public class UcanaccessConnection implements Connection {
 
     public void unloadDB() throws UcanaccessSQLException {
         try {
-            synchronized (UcanaccessDriver.class) {
+            synchronized (DBReferenceSingleton.getInstance().getLock(this.ref.getDbFile())) {
                 this.ref.shutdown(session);
             }
 
@@ -56,6 +56,13 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         return accessPath;
     }
 
+    /**
+     * See {@link #setBulkLoad(Boolean)} for details.
+     */
+    public Boolean getBulkLoad() {
+        return getPropAsBoolean("bulkload");
+    }
+
     /**
      * See {@link #setColumnOrder(String)} for details.
      */
@@ -140,6 +147,20 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         return getPropAsString("keepmirror");
     }
 
+    /**
+     * See {@link #setLazyLoading(Boolean)} for details.
+     */
+    public Boolean getLazyLoading() {
+        return getPropAsBoolean("lazyloading");
+    }
+
+    /**
+     * See {@link #setLoadingThreads(Integer)} for details.
+     */
+    public Integer getLoadingThreads() {
+        return getPropAsInteger("loadingthreads");
+    }
+
     /**
      * See {@link #setLobScale(Integer)} for details.
      */
@@ -233,7 +254,10 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         ref.add(new StringRefAddr("immediatelyreleaseresources", this.getPropAsString("immediatelyreleaseresources")));
         ref.add(new StringRefAddr("inactivitytimeout", this.getPropAsString("inactivitytimeout")));
         ref.add(new StringRefAddr("jackcessopener", this.getPropAsString("jackcessopener")));
+        ref.add(new StringRefAddr("loadingthreads", this.getPropAsString("loadingthreads")));
+        ref.add(new StringRefAddr("bulkload", this.getPropAsString("bulkload")));
         ref.add(new StringRefAddr("keepmirror", this.getPropAsString("keepmirror")));
+        ref.add(new StringRefAddr("lazyloading", this.getPropAsString("lazyloading")));
         ref.add(new StringRefAddr("lobscale", this.getPropAsString("lobscale")));
         ref.add(new StringRefAddr("memory", this.getPropAsString("memory")));
         ref.add(new StringRefAddr("mirrorfolder", this.getPropAsString("mirrorfolder")));
@@ -243,7 +267,9 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         ref.add(new StringRefAddr("remap", this.getPropAsString("remap")));
         ref.add(new StringRefAddr("showschema", this.getPropAsString("showschema")));
         ref.add(new StringRefAddr("skipindexes", this.getPropAsString("skipindexes")));
+        ref.add(new StringRefAddr("spillthreshold", this.getPropAsString("spillthreshold")));
         ref.add(new StringRefAddr("sysschema", this.getPropAsString("sysschema")));
+        ref.add(new StringRefAddr("writebehind", this.getPropAsString("writebehind")));
 
         return ref;
     }
@@ -269,6 +295,13 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         return getPropAsBoolean("skipindexes");
     }
 
+    /**
+     * See {@link #setSpillThreshold(Integer)} for details.
+     */
+    public Integer getSpillThreshold() {
+        return getPropAsInteger("spillthreshold");
+    }
+
     /**
      * See {@link #setSysSchema(Boolean)} for details.
      */
@@ -280,6 +313,13 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         return user;
     }
 
+    /**
+     * See {@link #setWriteBehind(Boolean)} for details.
+     */
+    public Boolean getWriteBehind() {
+        return getPropAsBoolean("writebehind");
+    }
+
     @Override
     public boolean isWrapperFor(Class<?> iface) throws SQLException {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -296,6 +336,18 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         this.accessPath = _accessPath;
     }
 
+    /**
+     * Loads the tables data into the HSQLDB backing database before creating primary keys, unique and foreign key
+     * constraints and indexes, so that each of them is built once when the Access database is opened.
+     *
+     * @param value
+     *            (default = false)
+     * @since 4.0.4
+     */
+    public void setBulkLoad(Boolean value) {
+        setProp("bulkload", value, null);
+    }
+
     /**
      * Controls the order in which columns are returned by operations like SELECT *. The default is "DATA". See the
      * UCanAccess website for details.
@@ -391,6 +443,31 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         setProp("keepmirror", value, null);
     }
 
+    /**
+     * Creates the tables, constraints and indexes of the HSQLDB backing database when the Access database is opened,
+     * but loads the data of each table only when a statement first references it. Ignored if keepMirror is set.
+     *
+     * @param value
+     *            (default = false)
+     * @since 4.0.4
+     */
+    public void setLazyLoading(Boolean value) {
+        setProp("lazyloading", value, null);
+    }
+
+    /**
+     * Number of worker threads used to load the tables data into the HSQLDB backing database when the Access database
+     * is opened. Each worker inserts through its own HSQLDB connection; foreign keys are created once all the data have
+     * been loaded.
+     *
+     * @param value
+     *            (default = 1, i.e. serial loading)
+     * @since 4.0.4
+     */
+    public void setLoadingThreads(Integer value) {
+        setProp("loadingthreads", value, null);
+    }
+
     /**
      * Controls the allocation unit size for "OLE Object" (i.e., BLOB) data in the HSQLDB backing database. See the
      * UCanAccess website for details.
@@ -530,6 +607,18 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         setProp("skipindexes", value, null);
     }
 
+    /**
+     * Bounds the memory taken by a large pending transaction: once its inserted rows hold more binary and text data
+     * than the threshold, the large values of the following rows are kept in a temporary file until it ends.
+     *
+     * @param value
+     *            threshold in kB (default = 0, i.e. the values are always kept in memory)
+     * @since 4.0.4
+     */
+    public void setSpillThreshold(Integer value) {
+        setProp("spillthreshold", value, null);
+    }
+
     /**
      * Exposes the Access system tables in a read-only schema named "SYS".
      *
@@ -544,6 +633,18 @@ public class UcanaccessDataSource implements Serializable, Referenceable, DataSo
         this.user = _user;
     }
 
+    /**
+     * Makes commit return once the transaction has been committed in the HSQLDB backing database, whilst a background
+     * thread writes it to the Access file. Use UcanaccessConnection.sync() to wait for the pending writes.
+     *
+     * @param value
+     *            (default = false)
+     * @since 4.0.4
+     */
+    public void setWriteBehind(Boolean value) {
+        setProp("writebehind", value, null);
+    }
+
     @Override
     public <T> T unwrap(Class<T> _iface) throws SQLException {
         throw new UnsupportedOperationException("Not supported yet.");
@@ -44,6 +44,9 @@ public class UcanaccessDataSourceFactory implements ObjectFactory {
             dataSource.setInactivityTimeout((Integer) ref.get("inactivitytimeout").getContent());
             dataSource.setJackcessOpener((String) ref.get("jackcessopener").getContent());
             dataSource.setKeepMirror((String) ref.get("keepmirror").getContent());
+            dataSource.setLazyLoading((Boolean) ref.get("lazyloading").getContent());
+            dataSource.setLoadingThreads((Integer) ref.get("loadingthreads").getContent());
+            dataSource.setBulkLoad((Boolean) ref.get("bulkload").getContent());
             dataSource.setLobScale((Integer) ref.get("lobscale").getContent());
             dataSource.setMemory((Boolean) ref.get("memory").getContent());
             dataSource.setMirrorFolder((String) ref.get("mirrorfolder").getContent());
@@ -53,7 +56,9 @@ public class UcanaccessDataSourceFactory implements ObjectFactory {
             dataSource.setReMap((String) ref.get("remap").getContent());
             dataSource.setShowSchema((Boolean) ref.get("showschema").getContent());
             dataSource.setSkipIndexes((Boolean) ref.get("skipindexes").getContent());
+            dataSource.setSpillThreshold((Integer) ref.get("spillthreshold").getContent());
             dataSource.setSysSchema((Boolean) ref.get("sysschema").getContent());
+            dataSource.setWriteBehind((Boolean) ref.get("writebehind").getContent());
 
             return dataSource;
         } else {
@@ -71,7 +71,7 @@ public final class UcanaccessDriver implements Driver {
         File mdb = new File(fileMdbPath);
         DBReferenceSingleton as = DBReferenceSingleton.getInstance();
 
-        synchronized (UcanaccessDriver.class) {
+        synchronized (as.getLock(mdb)) {
             try {
                 Session session = new Session();
 
@@ -201,6 +201,7 @@ public final class UcanaccessDriver implements Driver {
                 if (!alreadyLoaded) {
                     boolean toBeLoaded = !dbRef.loadedFromKeptMirror(session);
                     LoadJet la = new LoadJet(dbRef.getHSQLDBConnection(session), dbRef.getDbIO());
+                    la.setConversionContext(dbRef.getConversionContext());
                     Logger.turnOffJackcessLog();
                     if (_props.containsKey("sysschema")) {
                         boolean sysSchema = Boolean.parseBoolean(_props.getProperty("sysschema"));
@@ -213,9 +214,32 @@ public final class UcanaccessDriver implements Driver {
                         dbRef.setSkipIndexes(skipIndexes);
                         la.setSkipIndexes(skipIndexes);
                     }
+                    if (_props.containsKey("loadingthreads")) {
+                        int loadingThreads = Integer.parseInt(_props.getProperty("loadingthreads"));
+                        dbRef.setLoadingThreads(loadingThreads);
+                        la.setLoadingThreads(loadingThreads, dbRef, session);
+                    }
+                    if (_props.containsKey("bulkload")) {
+                        boolean bulkLoad = Boolean.parseBoolean(_props.getProperty("bulkload"));
+                        dbRef.setBulkLoad(bulkLoad);
+                        la.setBulkLoad(bulkLoad);
+                    }
+                    if (_props.containsKey("lazyloading") && dbRef.getToKeepHsql() == null) {
+                        boolean lazyLoading = Boolean.parseBoolean(_props.getProperty("lazyloading"));
+                        dbRef.setLazyLoading(lazyLoading);
+                        la.setLazyLoading(lazyLoading, dbRef, session);
+                    }
+                    if (_props.containsKey("writebehind")) {
+                        dbRef.setWriteBehind(Boolean.parseBoolean(_props.getProperty("writebehind")));
+                    }
+                    if (_props.containsKey("spillthreshold")) {
+                        dbRef.setSpillThreshold(Integer.parseInt(_props.getProperty("spillthreshold")));
+                    }
 
                     if (toBeLoaded) {
                         la.loadDB();
+                        dbRef.setLoadingStatistics(la.getLoadingStatistics());
+                        dbRef.setLoader(la);
                     } else {
                         la.resetFunctionsDefault();
                     }
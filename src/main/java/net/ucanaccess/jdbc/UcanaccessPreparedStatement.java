@@ -248,7 +248,12 @@ public class UcanaccessPreparedStatement extends UcanaccessStatement implements
             preprocess();
             ((UcanaccessConnection) this.getConnection()).setCurrentStatement(this);
             checkLastModified();
-            return new UcanaccessResultSet(wrapped.executeQuery(), this);
+            UcanaccessConnection.setCtxQuery(true);
+            try {
+                return new UcanaccessResultSet(wrapped.executeQuery(), this);
+            } finally {
+                UcanaccessConnection.setCtxQuery(false);
+            }
         } catch (SQLException e) {
             throw new UcanaccessSQLException(e);
         }
@@ -40,7 +40,8 @@ public class UcanaccessSQLException extends SQLException {
         ACCESS_97,
         PARAMETER_NULL,
         TABLE_DOESNT_EXIST,
-        DEFAULT_NEEDED
+        DEFAULT_NEEDED,
+        WRITE_BEHIND_FAILED
 
     }
 
@@ -25,6 +25,7 @@ import java.util.Map;
 import org.hsqldb.jdbc.JDBCPreparedStatement;
 import org.hsqldb.jdbc.JDBCStatement;
 
+import net.ucanaccess.converters.ConversionContext;
 import net.ucanaccess.converters.SQLConverter;
 import net.ucanaccess.jdbc.UcanaccessSQLException.ExceptionMessages;
 
@@ -50,21 +51,23 @@ public class UcanaccessStatement implements Statement {
         this.connection = _conn;
     }
 
-    private String convertSQL(String sql, UcanaccessConnection conn) {
+    private String convertSQL(String sql, UcanaccessConnection conn) throws SQLException {
         if (SQLConverter.checkDDL(sql)) {
             return sql;
         }
-        NormalizedSQL nsql = SQLConverter.convertSQL(sql, conn);
+        NormalizedSQL nsql = this.connection.convertSQL(sql, conn);
         this.aliases = nsql.getAliases();
+        this.connection.loadReferencedTables(nsql.getSql());
         return preprocess(nsql.getSql());
     }
 
-    private String convertSQL(String sql) {
+    private String convertSQL(String sql) throws SQLException {
         if (SQLConverter.checkDDL(sql)) {
             return sql;
         }
-        NormalizedSQL nsql = SQLConverter.convertSQL(sql);
+        NormalizedSQL nsql = this.connection.convertSQL(sql, null);
         this.aliases = nsql.getAliases();
+        this.connection.loadReferencedTables(nsql.getSql());
         return preprocess(nsql.getSql());
     }
 
@@ -74,12 +77,17 @@ public class UcanaccessStatement implements Statement {
 
     @Override
     public void addBatch(String batch) throws SQLException {
+        ConversionContext previous = this.connection.getConversionContext().bind();
         try {
 
-            wrapped.addBatch(SQLConverter.convertSQL(batch).getSql());
+            String sql = SQLConverter.convertSQL(batch).getSql();
+            this.connection.loadReferencedTables(sql);
+            wrapped.addBatch(sql);
 
         } catch (SQLException e) {
             throw new UcanaccessSQLException(e);
+        } finally {
+            ConversionContext.restore(previous);
         }
     }
 
@@ -212,8 +220,12 @@ public class UcanaccessStatement implements Statement {
             this.connection.setCurrentStatement(this);
             checkLastModified();
             sql = convertSQL(sql, this.connection);
-
-            return new UcanaccessResultSet(wrapped.executeQuery(sql), this);
+            UcanaccessConnection.setCtxQuery(true);
+            try {
+                return new UcanaccessResultSet(wrapped.executeQuery(sql), this);
+            } finally {
+                UcanaccessConnection.setCtxQuery(false);
+            }
         } catch (SQLException e) {
             throw new UcanaccessSQLException(e);
         }
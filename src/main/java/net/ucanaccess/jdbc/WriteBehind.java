@@ -0,0 +1,165 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.jdbc;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import net.ucanaccess.commands.ICommand;
+import net.ucanaccess.jdbc.UcanaccessSQLException.ExceptionMessages;
+
+/**
+ * Writes the transactions committed in HSQLDB to the Access file in a background thread, in commit order. At most
+ * {@link #CAPACITY} transactions can wait to be written: a commit blocks until one of them has been written.
+ * <p>
+ * Once a transaction fails, the queued ones are discarded and every following commit or sync fails.
+ */
+final class WriteBehind {
+    static final int                 CAPACITY = 64;
+
+    private final Semaphore          permits  = new Semaphore(CAPACITY);
+    private final CommitLock         commitLock;
+    private final ThreadPoolExecutor executor;
+    private volatile Thread          writerThread;
+    private volatile Throwable       failure;
+    private boolean                  failureReported;
+
+    WriteBehind(final String _name, CommitLock _commitLock) {
+        this.commitLock = _commitLock;
+        // the writer thread is not a daemon, so that pending writes are not lost when the JVM exits; it terminates
+        // as soon as it is idle
+        this.executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread th = new Thread(r, "UcanaccessWriteBehind-" + _name);
+                        writerThread = th;
+                        return th;
+                    }
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Waits until there is room for one more transaction.
+     */
+    void reserve() throws SQLException {
+        checkFailure();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UcanaccessSQLException(e);
+        }
+    }
+
+    /**
+     * Gives back a room obtained by {@link #reserve()} and not used by {@link #enqueue(UcanaccessConnection, List)}.
+     */
+    void cancel() {
+        permits.release();
+    }
+
+    void enqueue(final UcanaccessConnection _conn, final List<ICommand> _commands) throws SQLException {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (failure == null) {
+                            _conn.applyCommands(_commands);
+                        }
+                    } catch (Throwable t) {
+                        failure = t;
+                    } finally {
+                        permits.release();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw new UcanaccessSQLException(e);
+        }
+    }
+
+    /**
+     * Waits until every transaction enqueued so far has been written to the Access file.
+     */
+    void sync() throws SQLException {
+        if (Thread.currentThread() != writerThread) {
+            try {
+                executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                }).get();
+            } catch (RejectedExecutionException e) {
+                // stopped: nothing left to wait for
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UcanaccessSQLException(e);
+            } catch (ExecutionException e) {
+                throw new UcanaccessSQLException(e);
+            }
+        }
+        checkFailure();
+    }
+
+    boolean isPending() {
+        return permits.availablePermits() < CAPACITY;
+    }
+
+    /**
+     * Returns true only the first time it is called after a failure, so that a single caller unloads the database.
+     */
+    synchronized boolean reportFailure() {
+        if (failure == null || failureReported) {
+            return false;
+        }
+        failureReported = true;
+        return true;
+    }
+
+    /**
+     * Stops the writer. The transactions not yet written are discarded.
+     */
+    void stop() {
+        executor.shutdownNow();
+        // the writer needs the commit lock, so a thread holding it cannot wait for the writer
+        if (Thread.currentThread() == writerThread || commitLock.isHeldByCurrentThread()) {
+            return;
+        }
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() throws SQLException {
+        Throwable t = failure;
+        if (t != null) {
+            throw new UcanaccessSQLException(ExceptionMessages.WRITE_BEHIND_FAILED, String.valueOf(t.getMessage()));
+        }
+    }
+}
@@ -61,22 +61,24 @@ public class TriggerAutoNumber extends TriggerBase {
 
                 if (cl.isAutoNumber()) {
                     if (type == Trigger.INSERT_BEFORE_ROW) {
+                        // the write-behind writer may be switching the flag on for a moment
+                        synchronized (conn.getDbIO()) {
+                            if (t.isAllowAutoNumberInsert()) {
+                                if (cl.getAutoNumberGenerator().getType().equals(DataType.LONG) && newR[i] != null) {
+                                    AutoNumberManager.bump(cl, (Integer) newR[i]);
+                                }
+                            } else {
+                                if (cl.getAutoNumberGenerator().getType().equals(DataType.GUID)) {
 
-                        if (t.isAllowAutoNumberInsert()) {
-                            if (cl.getAutoNumberGenerator().getType().equals(DataType.LONG) && newR[i] != null) {
-                                AutoNumberManager.bump(cl, (Integer) newR[i]);
-                            }
-                        } else {
-                            if (cl.getAutoNumberGenerator().getType().equals(DataType.GUID)) {
-
-                                if (newR[i] == null) {
-                                    newR[i] = "{" + UUID.randomUUID().toString().toUpperCase() + "}";
+                                    if (newR[i] == null) {
+                                        newR[i] = "{" + UUID.randomUUID().toString().toUpperCase() + "}";
+                                    }
+                                    conn.setGeneratedKey(newR[i]);
+                                } else if (cl.getAutoNumberGenerator().getType().equals(DataType.LONG)) {
+                                    int keyg = AutoNumberManager.getNext(cl);
+                                    newR[i] = keyg;
+                                    conn.setGeneratedKey(newR[i]);
                                 }
-                                conn.setGeneratedKey(newR[i]);
-                            } else if (cl.getAutoNumberGenerator().getType().equals(DataType.LONG)) {
-                                int keyg = AutoNumberManager.getNext(cl);
-                                newR[i] = keyg;
-                                conn.setGeneratedKey(newR[i]);
                             }
                         }
                     } else if (type == Trigger.UPDATE_BEFORE_ROW
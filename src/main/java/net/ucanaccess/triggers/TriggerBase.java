@@ -19,6 +19,8 @@ import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Map;
 
+import net.ucanaccess.commands.IndexSelector;
+import net.ucanaccess.commands.RowPattern;
 import net.ucanaccess.converters.Persist2Jet;
 import net.ucanaccess.converters.SQLConverter;
 import net.ucanaccess.converters.UcanaccessTable;
@@ -37,30 +39,53 @@ public abstract class TriggerBase implements org.hsqldb.Trigger {
     }
 
     public void checkContext() {
-        if (!UcanaccessConnection.hasContext() || UcanaccessConnection.getCtxConnection() == null) {
-            for (StackTraceElement el : Thread.currentThread().getStackTrace()) {
-                if ("executeQuery".equals(el.getMethodName())) {
-                    throw new TriggerException(Logger.getLogMessage(Logger.Messages.NO_SELECT));
-                }
-            }
+        // a DML statement run through executeQuery has no context connection
+        if (UcanaccessConnection.isCtxQuery() && UcanaccessConnection.getCtxConnection() == null) {
+            throw new TriggerException(Logger.getLogMessage(Logger.Messages.NO_SELECT));
         }
-
     }
 
     protected Map<String, Object> getRowPattern(Object[] values, Table t) throws SQLException {
-        return P2A.getRowPattern(values, t);
+        TriggerTableCache cache = UcanaccessConnection.getCtxConnection().getTriggerTables();
+        RowPattern.Layout layout = cache.getRowPatternLayout(t);
+        if (layout == null) {
+            layout = P2A.getRowPatternLayout(t);
+            cache.putRowPatternLayout(t, layout);
+        }
+        return layout.newRowPattern(values);
+    }
+
+    /**
+     * Returns the index selector shared by the commands on the rows of a table whose row pattern layout is cached.
+     */
+    protected IndexSelector getIndexSelector(Table t) {
+        IndexSelector is = UcanaccessConnection.getCtxConnection().getTriggerTables().getIndexSelector(t);
+        return is == null ? new IndexSelector(t) : is;
     }
 
     protected Table getTable(String tableName, UcanaccessConnection conn) throws IOException {
-        Table t = conn.getDbIO().getTable(tableName);
+        TriggerTableCache cache = conn.getTriggerTables();
+        Database db = conn.getDbIO();
+        Table t = cache.getTable(tableName, db);
+        if (t == null) {
+            t = resolveTable(tableName, db);
+            if (t == null) {
+                return new UcanaccessTable(null, tableName);
+            }
+            cache.putTable(tableName, t);
+        }
+        return t;
+    }
+
+    private Table resolveTable(String tableName, Database db) throws IOException {
+        Table t = db.getTable(tableName);
         if (t == null && tableName.startsWith(ESCAPE_PREFIX) && SQLConverter.isXescaped(tableName.substring(1))) {
-            t = conn.getDbIO().getTable(tableName.substring(1));
+            t = db.getTable(tableName.substring(1));
             if (t != null) {
                 return new UcanaccessTable(t, tableName.substring(1));
             }
         }
         if (t == null) {
-            Database db = conn.getDbIO();
             for (String cand : db.getTableNames()) {
                 if (SQLConverter.preEscapingIdentifier(cand).equals(tableName)
                         || SQLConverter.escapeIdentifier(cand).equals(tableName)) {
@@ -69,7 +94,7 @@ public abstract class TriggerBase implements org.hsqldb.Trigger {
                 }
             }
         }
-        return new UcanaccessTable(t, tableName);
+        return t == null ? null : new UcanaccessTable(t, tableName);
     }
 
 }
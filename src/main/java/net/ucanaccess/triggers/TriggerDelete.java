@@ -15,6 +15,8 @@ limitations under the License.
 */
 package net.ucanaccess.triggers;
 
+import java.util.Map;
+
 import net.ucanaccess.commands.DeleteCommand;
 import net.ucanaccess.jdbc.UcanaccessConnection;
 
@@ -29,7 +31,8 @@ public class TriggerDelete extends TriggerBase {
         try {
             Table t = getTable(tableName, conn);
             super.convertRowTypes(oldR, t);
-            DeleteCommand c4j = new DeleteCommand(t, getRowPattern(oldR, t), execId);
+            Map<String, Object> rowPattern = getRowPattern(oldR, t);
+            DeleteCommand c4j = new DeleteCommand(t, getIndexSelector(t), rowPattern, execId);
             conn.add(c4j);
         } catch (Exception e) {
             throw new TriggerException(e.getMessage());
@@ -0,0 +1,71 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.triggers;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.ucanaccess.commands.IndexSelector;
+import net.ucanaccess.commands.RowPattern;
+
+import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.Table;
+
+/**
+ * Caches, for the triggers of a database, the Jackcess table of each HSQLDB table, the layout of its row patterns
+ * and the index selector shared by the commands on its rows. It's emptied when the Access file is reopened and when a
+ * DDL statement is executed.
+ */
+public final class TriggerTableCache {
+    private final ConcurrentHashMap<String, Table>            tables      =
+            new ConcurrentHashMap<String, Table>();
+    private final ConcurrentHashMap<Table, RowPattern.Layout> rowPatterns =
+            new ConcurrentHashMap<Table, RowPattern.Layout>();
+    private final ConcurrentHashMap<Table, IndexSelector>     selectors   =
+            new ConcurrentHashMap<Table, IndexSelector>();
+    private volatile Database                                 database;
+
+    Table getTable(String _tableName, Database _db) {
+        if (_db != database) {
+            clear();
+            database = _db;
+            return null;
+        }
+        return tables.get(_tableName);
+    }
+
+    void putTable(String _tableName, Table _table) {
+        tables.put(_tableName, _table);
+    }
+
+    RowPattern.Layout getRowPatternLayout(Table _table) {
+        return rowPatterns.get(_table);
+    }
+
+    void putRowPatternLayout(Table _table, RowPattern.Layout _layout) {
+        rowPatterns.put(_table, _layout);
+        selectors.put(_table, new IndexSelector(_table));
+    }
+
+    IndexSelector getIndexSelector(Table _table) {
+        return selectors.get(_table);
+    }
+
+    public void clear() {
+        tables.clear();
+        rowPatterns.clear();
+        selectors.clear();
+    }
+}
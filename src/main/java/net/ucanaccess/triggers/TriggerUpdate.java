@@ -22,6 +22,8 @@ import net.ucanaccess.jdbc.UcanaccessConnection;
 
 import com.healthmarketscience.jackcess.Table;
 
+import org.hsqldb.types.JavaObjectData;
+
 public class TriggerUpdate extends TriggerBase {
     @Override
     public void fire(int type, String name, String tableName, Object[] oldR, Object[] newR) {
@@ -30,6 +32,10 @@ public class TriggerUpdate extends TriggerBase {
         if (conn.isFeedbackState()) {
             return;
         }
+        // an unchanged row is skipped before its values (BLOBs included) are converted
+        if (!rawValuesChanged(oldR, newR)) {
+            return;
+        }
         String execId = UcanaccessConnection.getCtxExcId();
         try {
             Table t = getTable(tableName, conn);
@@ -37,7 +43,7 @@ public class TriggerUpdate extends TriggerBase {
             super.convertRowTypes(newR, t);
             if (valuesChanged(oldR, newR)) {
                 Map<String, Object> rowPattern = getRowPattern(oldR, t);
-                UpdateCommand c4j = new UpdateCommand(t, rowPattern, newR, execId);
+                UpdateCommand c4j = new UpdateCommand(t, getIndexSelector(t), rowPattern, newR, execId);
                 conn.add(c4j);
             }
         } catch (Exception e) {
@@ -45,6 +51,19 @@ public class TriggerUpdate extends TriggerBase {
         }
     }
 
+    /**
+     * Compares the values as HSQLDB holds them. A row with complex values is reported as changed, since the values
+     * converted from them never compare equal.
+     */
+    private boolean rawValuesChanged(Object[] oldR, Object[] newR) {
+        for (Object value : oldR) {
+            if (value instanceof JavaObjectData) {
+                return true;
+            }
+        }
+        return valuesChanged(oldR, newR);
+    }
+
     public boolean valuesChanged(Object[] oldR, Object[] newR) {
         if (oldR.length != newR.length) {
             return true;
@@ -0,0 +1,91 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.commands;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.healthmarketscience.jackcess.Column;
+
+import net.ucanaccess.test.util.AbstractTestBase;
+
+/** Unit test for {@link RowPattern}. */
+public class RowPatternTest extends AbstractTestBase {
+
+    private static Column column(final String _name) {
+        return (Column) Proxy.newProxyInstance(RowPatternTest.class.getClassLoader(), new Class<?>[] { Column.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return "getName".equals(method.getName()) ? _name : null;
+                    }
+                });
+    }
+
+    private static RowPattern.Layout layout() {
+        List<Column> columns = new ArrayList<Column>();
+        columns.add(column("ID"));
+        columns.add(column("DESCR"));
+        columns.add(column("MISSING"));
+        // the HSQLDB row holds DESCR before ID, and no value for MISSING
+        return new RowPattern.Layout(columns, new int[] { 1, 0, -1 });
+    }
+
+    @Test
+    public void testNewRowPattern() {
+        RowPattern rp = layout().newRowPattern(new Object[] { "a", 1 });
+        Map<String, Object> expected = new LinkedHashMap<String, Object>();
+        expected.put("ID", 1);
+        expected.put("DESCR", "a");
+        expected.put("MISSING", null);
+        assertEquals(expected, rp);
+        assertEquals(new ArrayList<String>(expected.keySet()), new ArrayList<String>(rp.keySet()));
+        assertEquals(Arrays.asList(1, "a", null), Arrays.asList(rp.toArray()));
+        assertTrue(rp.containsKey("MISSING"));
+        assertFalse(rp.containsKey("OTHER"));
+    }
+
+    @Test
+    public void testPut() {
+        Object[] row = new Object[] { "a", 1 };
+        RowPattern rp = layout().newRowPattern(row);
+        Map<String, Object> autoNumbers = new LinkedHashMap<String, Object>();
+        autoNumbers.put("ID", 2);
+        rp.putAll(autoNumbers);
+        assertEquals(2, rp.get("ID"));
+        assertEquals(1, row[1]);
+        for (Map.Entry<String, Object> e : rp.entrySet()) {
+            if ("DESCR".equals(e.getKey())) {
+                e.setValue("b");
+            }
+        }
+        assertEquals("b", rp.get("DESCR"));
+        try {
+            rp.put("OTHER", 3);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException _ex) {
+            assertEquals(3, rp.size());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.converters;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.healthmarketscience.jackcess.DataType;
+
+import net.ucanaccess.test.util.AbstractTestBase;
+
+/** Unit test for {@link ColumnBinder}. */
+public class ColumnBinderTest extends AbstractTestBase {
+
+    @Test
+    public void testForType() {
+        assertEquals(ColumnBinder.BYTE, ColumnBinder.forType(DataType.BYTE));
+        assertEquals(ColumnBinder.SHORT, ColumnBinder.forType(DataType.INT));
+        assertEquals(ColumnBinder.INTEGER, ColumnBinder.forType(DataType.LONG));
+        assertEquals(ColumnBinder.DECIMAL, ColumnBinder.forType(DataType.MONEY));
+        assertEquals(ColumnBinder.TEXT, ColumnBinder.forType(DataType.GUID));
+        assertEquals(ColumnBinder.BINARY, ColumnBinder.forType(DataType.OLE));
+        assertEquals(ColumnBinder.GENERIC, ColumnBinder.forType(DataType.COMPLEX_TYPE));
+    }
+
+    @Test
+    public void testBind() throws Exception {
+        final List<String> calls = new ArrayList<String>();
+        PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { PreparedStatement.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        calls.add(method.getName() + Arrays.asList(args));
+                        return null;
+                    }
+                });
+        ColumnBinder.BYTE.bind(ps, 1, (byte) -1);
+        ColumnBinder.FLOAT.bind(ps, 2, 1.1f);
+        ColumnBinder.FLOAT.bind(ps, 3, Float.NaN);
+        ColumnBinder.TIMESTAMP.bind(ps, 4, new Date(1000L));
+        ColumnBinder.DECIMAL.bind(ps, 5, BigDecimal.TEN);
+        ColumnBinder.TEXT.bind(ps, 6, null);
+        assertEquals(Arrays.asList("setInt[1, 255]", "setDouble[2, 1.1]", "setDouble[3, NaN]",
+                "setTimestamp[4, " + new Timestamp(1000L) + "]", "setBigDecimal[5, 10]",
+                "setNull[6, " + Types.VARCHAR + "]"), calls);
+    }
+
+    @Test
+    public void testGenericDecode() throws Exception {
+        assertEquals(new BigDecimal("1.1"), ColumnBinder.GENERIC.decode(1.1f));
+        assertEquals(new Timestamp(1000L), ColumnBinder.GENERIC.decode(new Date(1000L)));
+        assertEquals(200, ColumnBinder.GENERIC.decode((byte) 200));
+        assertEquals("text", ColumnBinder.GENERIC.decode("text"));
+    }
+}
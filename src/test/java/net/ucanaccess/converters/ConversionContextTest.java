@@ -0,0 +1,75 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.converters;
+
+import org.junit.Test;
+
+import net.ucanaccess.test.util.AbstractTestBase;
+
+/** Unit test for {@link ConversionContext}. */
+public class ConversionContextTest extends AbstractTestBase {
+
+    private static String convert(ConversionContext context, String sql) {
+        ConversionContext previous = context.bind();
+        try {
+            return SQLConverter.convertSQL(sql).getSql();
+        } finally {
+            ConversionContext.restore(previous);
+        }
+    }
+
+    @Test
+    public void testNamesScopedByContext() {
+        ConversionContext first = new ConversionContext();
+        ConversionContext second = new ConversionContext();
+        ConversionContext previous = first.bind();
+        try {
+            SQLConverter.addWhiteSpacedTableNames("Order Details");
+        } finally {
+            ConversionContext.restore(previous);
+        }
+        assertTrue(first.getGeneration() > 0);
+        assertEquals(0, second.getGeneration());
+        assertTrue(convert(first, "SELECT * FROM Order Details WHERE 1=1").contains("\"Order Details\""));
+        assertFalse(convert(second, "SELECT * FROM Order Details WHERE 1=1").contains("\""));
+        assertEquals(SQLConverter.getGeneration(second) + 1, SQLConverter.getGeneration(first));
+    }
+
+    @Test
+    public void testPatternsCompiledOncePerContext() {
+        ConversionContext first = new ConversionContext();
+        ConversionContext second = new ConversionContext();
+        assertSame(first.pattern("(?i)\"ORDER DETAILS\""), first.pattern("(?i)\"ORDER DETAILS\""));
+        assertNotSame(first.pattern("(?i)\"ORDER DETAILS\""), second.pattern("(?i)\"ORDER DETAILS\""));
+    }
+
+    @Test
+    public void testMetadataKeptUntilChanged() {
+        ConversionContext context = new ConversionContext();
+        ConversionContext.Metadata metadata = context.getMetadata();
+        assertSame(metadata, context.getMetadata());
+        context.metadataChanged();
+        assertNotSame(metadata, context.getMetadata());
+        assertNotSame(ConversionContext.current().getMetadata(), ConversionContext.current().getMetadata());
+    }
+
+    @Test
+    public void testWorkAroundFunctionsRestored() {
+        assertEquals(" SELECT STDEV(a), VARP(b), currentUser() FROM t",
+                SQLConverter.restoreWorkAroundFunctions(" SELECT STDDEV_SAMP(a), VAR_POP(b), user() FROM t"));
+    }
+}
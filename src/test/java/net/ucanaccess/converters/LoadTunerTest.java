@@ -0,0 +1,86 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.converters;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.healthmarketscience.jackcess.Column;
+import com.healthmarketscience.jackcess.DataType;
+
+import net.ucanaccess.test.util.AbstractTestBase;
+
+/** Unit test for {@link LoadTuner}. */
+public class LoadTunerTest extends AbstractTestBase {
+
+    private static Column column(final DataType _type) {
+        return (Column) Proxy.newProxyInstance(LoadTunerTest.class.getClassLoader(), new Class<?>[] { Column.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("getType".equals(method.getName())) {
+                            return _type;
+                        }
+                        if ("getLengthInUnits".equals(method.getName())) {
+                            return (short) 50;
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    private static List<Column> columns(DataType _type, int _count) {
+        List<Column> cols = new ArrayList<Column>();
+        for (int i = 0; i < _count; i++) {
+            cols.add(column(_type));
+        }
+        return cols;
+    }
+
+    @Test
+    public void testInitialBatchSize() {
+        LoadTuner narrow = new LoadTuner("narrow", columns(DataType.LONG, 2));
+        LoadTuner wide = new LoadTuner("wide", columns(DataType.OLE, 4));
+        assertTrue(narrow.getBatchSize() > wide.getBatchSize());
+        assertTrue(narrow.getBatchSize() <= LoadTuner.MAX_BATCH_SIZE);
+        assertTrue(wide.getBatchSize() >= LoadTuner.MIN_BATCH_SIZE);
+    }
+
+    @Test
+    public void testBatchExecuted() {
+        LoadTuner tuner = new LoadTuner("t", columns(DataType.TEXT, 3));
+        int commits = 0;
+        for (int i = 0; i < 40; i++) {
+            int size = tuner.getBatchSize();
+            assertTrue(size >= LoadTuner.MIN_BATCH_SIZE && size <= LoadTuner.MAX_BATCH_SIZE);
+            if (tuner.batchExecuted(size, size * 1000L, size * 1000L)) {
+                commits++;
+            }
+        }
+        tuner.loaded();
+        assertTrue(commits > 0);
+        assertTrue(tuner.getCommits() >= commits);
+        assertTrue(tuner.getRows() > 0);
+        assertFalse(tuner.batchExecuted(0, 0, 0));
+        assertTrue(tuner.toString().startsWith("t: " + tuner.getRows() + " rows"));
+    }
+}
@@ -0,0 +1,49 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.converters;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import net.ucanaccess.test.util.AbstractTestBase;
+
+/** Unit test for {@link NameTrie}. */
+public class NameTrieTest extends AbstractTestBase {
+
+    private static int longestName(NameTrie trie, String s) {
+        int longest = -1;
+        NameTrie.Node node = trie.getRoot();
+        for (int i = 0; i < s.length() && (node = node.next(s.charAt(i))) != null; i++) {
+            if (node.isName()) {
+                longest = i + 1;
+            }
+        }
+        return longest;
+    }
+
+    @Test
+    public void testLookup() {
+        NameTrie trie = new NameTrie(Arrays.asList("ORDER DETAILS", "ORDER", "\u00e9 X"));
+        assertFalse(trie.isEmpty());
+        assertEquals(13, longestName(trie, "order Details,"));
+        assertEquals(5, longestName(trie, "Order Det"));
+        assertEquals(3, longestName(trie, "\u00e9 x"));
+        assertEquals(-1, longestName(trie, "\u00c9 X"));
+        assertTrue(new NameTrie(Arrays.<String> asList()).isEmpty());
+    }
+}
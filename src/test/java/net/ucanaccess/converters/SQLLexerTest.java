@@ -0,0 +1,61 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.converters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.ucanaccess.test.util.AbstractTestBase;
+
+/** Unit test for {@link SQLLexer} and the date literals of {@link SQLConverter}. */
+public class SQLLexerTest extends AbstractTestBase {
+
+    private static List<String> tokens(String sql) {
+        List<String> ret = new ArrayList<String>();
+        for (SQLLexer.Token token : SQLLexer.tokenize(sql)) {
+            ret.add(token.getKind().name().charAt(0) + ":" + token.getText(sql));
+        }
+        return ret;
+    }
+
+    @Test
+    public void testTokenize() {
+        assertEquals(Arrays.asList("T:SELECT ", "S:'a''b'", "T:, ", "D:\"c\"", "T: FROM t"),
+                tokens("SELECT 'a''b', \"c\" FROM t"));
+        assertEquals(Arrays.asList("T:x=", "S:''", "T: AND y=", "S:'''q'"), tokens("x='' AND y='''q'"));
+        assertEquals(Arrays.asList("S:'it\"s'", "T: ", "D:\"it's\""), tokens("'it\"s' \"it's\""));
+        assertEquals(Arrays.asList("T:x=\"a ", "S:'b'"), tokens("x=\"a 'b'"));
+        assertEquals(Arrays.asList("T:no literals"), tokens("no literals"));
+        assertEquals(new ArrayList<String>(), tokens(""));
+    }
+
+    @Test
+    public void testConvertAccessDate() {
+        assertEquals("SELECT 1 FROM t", SQLConverter.convertAccessDate("SELECT 1 FROM t"));
+        assertEquals("d=Timestamp('2016-12-31 00:00:00') OR d=Timestamp0('2016-01-02 10:20:30')",
+                SQLConverter.convertAccessDate("d=#12/31/2016# OR d=#2016-01-02 10:20:30#"));
+        assertEquals("d=(Timestamp0('2016-12-31 10:20:30')+ 12 Hour) ",
+                SQLConverter.convertAccessDate("d=#12/31/2016 10:20:30 pm#"));
+        assertEquals("t=Timestamp'1899-12-30 10:20:30' AND x='#1'",
+                SQLConverter.convertAccessDate("t=#10:20:30 AM# AND x='#1'"));
+        assertEquals("d=Timestamp('2016-12-31 00:00:00') AND x='#12/31/2016#' AND y=\"#12/31/2016#\"",
+                SQLConverter.convertAccessDate("d=#12/31/2016# AND x='#12/31/2016#' AND y=\"#12/31/2016#\""));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.test.integration;
+
+import java.sql.SQLException;
+
+import org.junit.Test;
+
+import net.ucanaccess.test.util.AccessVersion;
+import net.ucanaccess.test.util.AccessVersion2007Test;
+
+/**
+ * Checks that the database containing constraint breaches is loaded the same way whatever the loading options given
+ * to the subclasses: the data are all there and the tables breaching a constraint are read-only.
+ */
+public abstract class AbstractLoadingTest extends AccessVersion2007Test {
+
+    public AbstractLoadingTest(AccessVersion _accessVersion, String _loadingOptions) {
+        super(_accessVersion);
+        appendToJdbcURL(_loadingOptions);
+    }
+
+    @Override
+    public String getAccessPath() {
+        return "testdbs/corrupted.accdb"; // Access 2007
+    }
+
+    @Test
+    public void testLoadedData() throws Exception {
+        checkQuery("SELECT * FROM Daddy ORDER BY ID", new Object[][] { { 1, "fff" }, { 2, "gg" }, { 3, "ggg" } });
+        checkQuery("SELECT * FROM Baby ORDER BY ID", new Object[][] { { 1, 2 }, { 2, 34 } });
+        checkQuery("SELECT * FROM UK ORDER BY ID", new Object[][] { { 1, 1 }, { 2, 1 } });
+        checkQuery("SELECT ID, vvv FROM NotNull ORDER BY ID", new Object[][] { { 1, "gg" }, { 2, "rr" }, { 4, "t" } });
+    }
+
+    @Test
+    public void testConstraintBreachesMakeTablesReadOnly() throws Exception {
+        checkReadOnly("INSERT INTO Baby (ID, fk1) VALUES (3, 1)");
+        checkReadOnly("INSERT INTO UK (ID, uk) VALUES (3, 3)");
+        checkReadOnly("INSERT INTO NotNull (ID, notnull, vvv, fk1) VALUES (5, 'a', 'a', 1)");
+    }
+
+    private void checkReadOnly(String _sql) {
+        try {
+            executeStatements(_sql);
+            fail("Table should be read-only: " + _sql);
+        } catch (SQLException e) {
+            getLogger().info("Expected exception: {}", e.getMessage());
+        }
+    }
+}
@@ -59,6 +59,29 @@ public class AggregateFunctionsTest extends AccessVersionAllTest {
 
     }
 
+    @Test
+    public void testDCountDynamicCriteria() throws SQLException, IOException, ParseException {
+        checkQuery("SELECT id, DCount('*','t235','id<=' & id) FROM t235 ORDER BY id",
+                new Object[][] { { 1234, 1 }, { 12344, 2 } });
+        checkQuery("SELECT id, DCount('*','t235','id<=' & id & ' AND id>=' & id) FROM t235 ORDER BY id",
+                new Object[][] { { 1234, 1 }, { 12344, 1 } });
+    }
+
+    @Test
+    public void testDCountDynamicCriteriaAfterDDL() throws SQLException, IOException, ParseException {
+        checkQuery("SELECT id, DCount('*','t235','id<=' & id) FROM t235 ORDER BY id",
+                new Object[][] { { 1234, 1 }, { 12344, 2 } });
+        executeStatements("ALTER TABLE t235 ADD COLUMN id2 INTEGER", "UPDATE t235 SET id2 = id");
+        checkQuery("SELECT id, DCount('*','t235','id2<=' & id2) FROM t235 ORDER BY id",
+                new Object[][] { { 1234, 1 }, { 12344, 2 } });
+    }
+
+    @Test
+    public void testDCountDateCriteria() throws SQLException, IOException, ParseException {
+        checkQuery("SELECT DCount('*','t235','date0<#1/1/2005#') ", 1);
+        checkQuery("SELECT DCount(\"*\",\"t235\",\"date0<#1/1/2005#\") ", 1);
+    }
+
     @Test
     public void testDSum() throws SQLException, IOException, ParseException {
         checkQuery("SELECT DSum('id','t235','1=1') ", 13578);
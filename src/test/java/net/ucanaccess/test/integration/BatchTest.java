@@ -71,4 +71,28 @@ public class BatchTest extends AccessVersionAllTest {
         st.close();
     }
 
+    @Test
+    public void testBatchInsert() throws SQLException, IOException {
+        executeStatements("CREATE TABLE TbCounter (id COUNTER PRIMARY KEY, name TEXT)");
+        PreparedStatement ps = ucanaccess.prepareStatement("INSERT INTO TbCounter (name) VALUES (?)");
+        for (int i = 1; i <= 50; i++) {
+            ps.setString(1, "name" + i);
+            ps.addBatch();
+        }
+        ps.executeBatch();
+        ps.close();
+
+        Statement st = ucanaccess.createStatement();
+        st.addBatch("INSERT INTO Tb VALUES(2,'Mia', 22)");
+        st.addBatch("INSERT INTO Tb VALUES(3,'Emma', 11)");
+        st.addBatch("INSERT INTO TbCounter (name) VALUES ('name51')");
+        st.addBatch("INSERT INTO Tb VALUES(4,'Ava', 44)");
+        st.executeBatch();
+        st.close();
+
+        checkQuery("SELECT * FROM Tb ORDER BY id");
+        checkQuery("SELECT * FROM TbCounter ORDER BY id");
+        checkQuery("SELECT COUNT(*), MIN(id), MAX(id) FROM TbCounter", new Object[][] { { 51, 1, 51 } });
+    }
+
 }
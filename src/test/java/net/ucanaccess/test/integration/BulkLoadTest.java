@@ -0,0 +1,46 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.test.integration;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import net.ucanaccess.test.util.AccessVersion;
+
+@RunWith(Parameterized.class)
+public class BulkLoadTest extends AbstractLoadingTest {
+
+    public BulkLoadTest(AccessVersion _accessVersion) {
+        super(_accessVersion, ";bulkLoad=true");
+    }
+
+    @Test
+    public void testConstraintsBuiltAfterLoading() throws Exception {
+        Statement st = ucanaccess.getHSQLDBConnection().createStatement();
+        ResultSet rs = st.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS "
+                + "WHERE CONSTRAINT_TYPE='PRIMARY KEY' AND TABLE_NAME IN ('DADDY', 'UKBABY') ORDER BY TABLE_NAME");
+        assertTrue(rs.next());
+        assertEquals("DADDY", rs.getString(1));
+        assertTrue(rs.next());
+        assertEquals("UKBABY", rs.getString(1));
+        st.close();
+    }
+}
@@ -26,6 +26,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import net.ucanaccess.jdbc.CommitLock;
 import net.ucanaccess.test.util.AccessVersion;
 import net.ucanaccess.test.util.AccessVersionAllTest;
 
@@ -60,6 +61,65 @@ public class CrudTest extends AccessVersionAllTest {
         st.close();
     }
 
+    @Test
+    public void testCrudWithoutKeysInOneTransaction() throws SQLException, IOException {
+        Statement st = ucanaccess.createStatement();
+        for (int i = 1; i <= 10; i++) {
+            st.execute("INSERT INTO T1 (id,descr) VALUES(" + i + ",'d" + i + "')");
+        }
+        st.execute("INSERT INTO T1 (id,descr) VALUES(100,'dup')");
+        st.execute("INSERT INTO T1 (id,descr) VALUES(100,'dup')");
+
+        ucanaccess.setAutoCommit(false);
+        for (int i = 1; i <= 10; i++) {
+            st.executeUpdate("UPDATE T1 SET descr='u" + i + "' WHERE id=" + i);
+        }
+        st.executeUpdate("DELETE FROM T1 WHERE id=3");
+        st.executeUpdate("UPDATE T1 SET id=50 WHERE id=5");
+        st.executeUpdate("UPDATE T1 SET descr='again' WHERE id=50");
+        st.executeUpdate("UPDATE T1 SET descr='dup2' WHERE id=100");
+        st.execute("INSERT INTO T1 (id,descr) VALUES(11,'d11')");
+        st.executeUpdate("UPDATE T1 SET descr='u11' WHERE id=11");
+        ucanaccess.commit();
+        st.close();
+
+        checkQuery("SELECT * FROM T1 ORDER BY id");
+        checkQuery("SELECT id, descr FROM T1 WHERE id IN (3, 5, 11, 50, 100) ORDER BY id",
+                new Object[][] { { 11, "u11" }, { 50, "again" }, { 100, "dup2" }, { 100, "dup2" } });
+    }
+
+    @Test
+    public void testMassUpdateShiftingValues() throws SQLException, IOException {
+        Statement st = ucanaccess.createStatement();
+        for (int i = 10; i >= 1; i--) {
+            st.execute("INSERT INTO T1 (id,descr) VALUES(" + i + ",'d" + (i % 3) + "')");
+        }
+        st.executeUpdate("UPDATE T1 SET id=id+1");
+        st.executeUpdate("UPDATE T1 SET descr='d' & id WHERE descr='d1'");
+        st.close();
+
+        checkQuery("SELECT * FROM T1 ORDER BY id");
+        checkQuery("SELECT COUNT(*), MIN(id), MAX(id) FROM T1", new Object[][] { { 10, 2, 11 } });
+    }
+
+    @Test
+    public void testNoOpUpdate() throws SQLException, IOException {
+        Statement st = ucanaccess.createStatement();
+        for (int i = 1; i <= 10; i++) {
+            st.execute("INSERT INTO T1 (id,descr) VALUES(" + i + ",'d" + i + "')");
+        }
+        CommitLock lock = ucanaccess.getCommitLock();
+        long acquisitions = lock.getAcquisitions();
+        assertEquals(10, st.executeUpdate("UPDATE T1 SET descr=descr, id=id"));
+        // nothing has been written to the Access file
+        assertEquals(acquisitions, lock.getAcquisitions());
+        st.executeUpdate("UPDATE T1 SET descr=descr & 'x' WHERE id=3");
+        st.close();
+
+        checkQuery("SELECT * FROM T1 ORDER BY id");
+        checkQuery("SELECT descr FROM T1 WHERE id=3", "d3x");
+    }
+
     @Test
     public void testCrudPS() throws SQLException, IOException {
         PreparedStatement ps = null;
@@ -0,0 +1,71 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.test.integration;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.DatabaseBuilder;
+
+import net.ucanaccess.test.util.AccessVersion;
+import net.ucanaccess.test.util.AccessVersionDefaultTest;
+
+@RunWith(Parameterized.class)
+public class IncrementalRefreshTest extends AccessVersionDefaultTest {
+
+    public IncrementalRefreshTest(AccessVersion _accessVersion) {
+        super(_accessVersion);
+    }
+
+    @Before
+    public void beforeTestCase() throws Exception {
+        executeStatements("CREATE TABLE T1 (id LONG PRIMARY KEY, descr TEXT(10))",
+                "CREATE TABLE T2 (id LONG PRIMARY KEY, descr TEXT(10))", "INSERT INTO T1 (id, descr) VALUES (1, 'one')",
+                "INSERT INTO T2 (id, descr) VALUES (1, 'one')");
+    }
+
+    @Test
+    public void testOnlyChangedTablesReloaded() throws Exception {
+        // the tables have been created after loading, so the first change reloads the whole mirror
+        addRowExternally("T1", 2, "two");
+        checkQuery("SELECT COUNT(*) FROM T1", 2);
+        addRowExternally("T2", 2, "two");
+        checkQuery("SELECT * FROM T2 ORDER BY id", new Object[][] { { 1, "one" }, { 2, "two" } });
+        checkQuery("SELECT COUNT(*) FROM T1", 2);
+        List<String> stats = ucanaccess.getLoadingStatistics();
+        assertEquals("REFRESH: 1 of 2 tables reloaded [T2]", stats.get(stats.size() - 1));
+        executeStatements("INSERT INTO T2 (id, descr) VALUES (3, 'three')");
+        checkQuery("SELECT COUNT(*) FROM T2", 3);
+        Database db = DatabaseBuilder.open(getFileAccDb());
+        assertEquals(3, db.getTable("T2").getRowCount());
+        db.close();
+    }
+
+    private void addRowExternally(String _table, int _id, String _descr) throws Exception {
+        File file = getFileAccDb();
+        long lastModified = file.lastModified();
+        Database db = DatabaseBuilder.open(file);
+        db.getTable(_table).addRow(_id, _descr);
+        db.close();
+        file.setLastModified(Math.max(lastModified, System.currentTimeMillis()) + 2000);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.test.integration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import net.ucanaccess.jdbc.UcanaccessConnection;
+import net.ucanaccess.test.util.AccessVersion;
+
+@RunWith(Parameterized.class)
+public class LazyLoadingTest extends AbstractLoadingTest {
+
+    public LazyLoadingTest(AccessVersion _accessVersion) {
+        super(_accessVersion, ";lazyLoading=true");
+    }
+
+    @Test
+    public void testTablesLoadedOnFirstReference() throws Exception {
+        assertEquals(0, countMirrorRows("UKBABY"));
+        assertEquals(0, countMirrorRows("DADDY"));
+        checkQuery("SELECT COUNT(*) FROM UK", 2);
+        assertEquals(0, countMirrorRows("DADDY"));
+        checkQuery("SELECT COUNT(*) FROM Baby", 2);
+        assertEquals(3, countMirrorRows("DADDY"));
+    }
+
+    @Test
+    public void testTableLoadedOnceByConcurrentConnections() throws Exception {
+        UcanaccessConnection other = getUcanaccessConnection();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final CyclicBarrier barrier = new CyclicBarrier(2);
+            List<Future<Integer>> counts = new ArrayList<Future<Integer>>();
+            for (final Connection conn : new Connection[] { ucanaccess, other }) {
+                counts.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        barrier.await();
+                        Statement st = conn.createStatement();
+                        try {
+                            ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM Daddy");
+                            rs.next();
+                            return rs.getInt(1);
+                        } finally {
+                            st.close();
+                        }
+                    }
+                }));
+            }
+            for (Future<Integer> count : counts) {
+                assertEquals(3, count.get().intValue());
+            }
+        } finally {
+            executor.shutdown();
+            other.close();
+        }
+        assertEquals(3, countMirrorRows("DADDY"));
+        int loads = 0;
+        for (String stat : ucanaccess.getLoadingStatistics()) {
+            if (stat.startsWith("Daddy: ")) {
+                loads++;
+            }
+        }
+        assertEquals(1, loads);
+    }
+
+    private int countMirrorRows(String _table) throws SQLException {
+        Statement st = ucanaccess.getHSQLDBConnection().createStatement();
+        try {
+            ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + _table);
+            rs.next();
+            return rs.getInt(1);
+        } finally {
+            st.close();
+        }
+    }
+}
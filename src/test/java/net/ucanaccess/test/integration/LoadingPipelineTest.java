@@ -0,0 +1,61 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.test.integration;
+
+import java.sql.PreparedStatement;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import net.ucanaccess.test.util.AccessVersion;
+import net.ucanaccess.test.util.AccessVersionDefaultTest;
+
+@RunWith(Parameterized.class)
+public class LoadingPipelineTest extends AccessVersionDefaultTest {
+
+    public LoadingPipelineTest(AccessVersion _accessVersion) {
+        super(_accessVersion);
+    }
+
+    @Test
+    public void testReloadSeveralChunks() throws Exception {
+        final int nbRecords = 4500;
+        executeStatements("CREATE TABLE PIPELINE (id LONG PRIMARY KEY, amount DOUBLE, descr MEMO)");
+        ucanaccess.setAutoCommit(false);
+        PreparedStatement ps = ucanaccess.prepareStatement("INSERT INTO PIPELINE (id, amount, descr) VALUES (?, ?, ?)");
+        for (int i = 1; i <= nbRecords; i++) {
+            ps.setInt(1, i);
+            ps.setDouble(2, i / 2d);
+            ps.setString(3, "row " + i);
+            ps.addBatch();
+        }
+        ps.executeBatch();
+        ucanaccess.commit();
+        ps.close();
+        ucanaccess.close();
+
+        ucanaccess = getUcanaccessConnection(getFileAccDb().getAbsolutePath());
+        checkQuery("SELECT COUNT(*), SUM(id), MAX(descr) FROM PIPELINE",
+                new Object[][] { { nbRecords, nbRecords * (nbRecords + 1) / 2, "row 999" } });
+        checkQuery("SELECT amount, descr FROM PIPELINE WHERE id = 4001", new Object[][] { { 2000.5d, "row 4001" } });
+        boolean found = false;
+        for (String stat : ucanaccess.getLoadingStatistics()) {
+            found |= stat.startsWith("PIPELINE: " + nbRecords + " rows");
+        }
+        assertTrue(found);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.test.integration;
+
+import java.sql.PreparedStatement;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.DatabaseBuilder;
+
+import net.ucanaccess.jdbc.MappedJackcessOpener;
+import net.ucanaccess.test.util.AccessVersion;
+import net.ucanaccess.test.util.AccessVersionAllTest;
+
+@RunWith(Parameterized.class)
+public class MappedJackcessOpenerTest extends AccessVersionAllTest {
+
+    public MappedJackcessOpenerTest(AccessVersion _accessVersion) {
+        super(_accessVersion);
+        appendToJdbcURL(";jackcessOpener=" + MappedJackcessOpener.class.getName());
+    }
+
+    @Test
+    public void testReadAndWrite() throws Exception {
+        assertEquals("MappedDatabase", ucanaccess.getDbIO().getClass().getSimpleName());
+        executeStatements("CREATE TABLE T1 (id LONG PRIMARY KEY, descr MEMO)");
+        ucanaccess.setAutoCommit(false);
+        PreparedStatement ps = ucanaccess.prepareStatement("INSERT INTO T1 (id, descr) VALUES (?, ?)");
+        StringBuffer descr = new StringBuffer();
+        for (int i = 0; i < 100; i++) {
+            descr.append("row ").append(i).append(' ');
+        }
+        for (int i = 0; i < 2000; i++) {
+            ps.setInt(1, i);
+            ps.setString(2, descr.toString());
+            ps.executeUpdate();
+        }
+        ps.close();
+        ucanaccess.commit();
+        checkQuery("SELECT COUNT(*) FROM T1", 2000);
+
+        Database db = DatabaseBuilder.open(getFileAccDb());
+        assertEquals(2000, db.getTable("T1").getRowCount());
+        db.close();
+    }
+}
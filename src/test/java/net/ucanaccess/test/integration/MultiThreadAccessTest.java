@@ -15,12 +15,19 @@ limitations under the License.
 */
 package net.ucanaccess.test.integration;
 
+import java.io.File;
 import java.io.IOException;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -28,6 +35,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import net.ucanaccess.jdbc.CommitLock;
+import net.ucanaccess.jdbc.DBReferenceSingleton;
+import net.ucanaccess.jdbc.UcanaccessDriver;
 import net.ucanaccess.test.util.AccessVersion;
 import net.ucanaccess.test.util.AccessVersionDefaultTest;
 
@@ -126,4 +136,61 @@ public class MultiThreadAccessTest extends AccessVersionDefaultTest {
 
         checkQuery("SELECT * FROM " + tableName + " ORDER BY id");
     }
+
+    @Test
+    public void testConcurrentCommits() throws Exception {
+        int nt = 20;
+        final int commits = 10;
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>();
+        for (int i = 0; i < nt; i++) {
+            final int first = i * commits;
+            FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+                @Override
+                public Void call() throws SQLException, IOException {
+                    Connection conn = getUcanaccessConnection(dbPath);
+                    conn.setAutoCommit(false);
+                    PreparedStatement ps = conn.prepareStatement("INSERT INTO " + tableName + " (descr) VALUES(?)");
+                    for (int j = first; j < first + commits; j++) {
+                        ps.setString(1, "commit " + j);
+                        ps.executeUpdate();
+                        conn.commit();
+                    }
+                    ps.close();
+                    conn.close();
+                    return null;
+                }
+            });
+            tasks.add(task);
+            new Thread(task).start();
+        }
+        for (FutureTask<Void> task : tasks) {
+            task.get(60, TimeUnit.SECONDS);
+        }
+        checkQuery("SELECT COUNT(*) FROM " + tableName + " WHERE descr LIKE 'commit %'", nt * commits);
+        checkQuery("SELECT * FROM " + tableName + " ORDER BY id");
+        CommitLock lock = ucanaccess.getCommitLock();
+        getLogger().info("{}", lock);
+        assertTrue(lock.getAcquisitions() > 0);
+        assertTrue(lock.getContentions() <= lock.getAcquisitions());
+    }
+
+    @Test
+    public void testConnectWhileAnotherDatabaseIsLocked() throws Exception {
+        File otherDb = File.createTempFile(getClass().getSimpleName() + "-", fileFormat.getFileExtension(), TEST_DB_TEMP_DIR);
+        otherDb.delete();
+        final String url = UcanaccessDriver.URL_PREFIX + otherDb.getAbsolutePath()
+                + ";immediatelyReleaseResources=true;newDatabaseVersion=" + fileFormat.name();
+        FutureTask<Connection> connect = new FutureTask<Connection>(new Callable<Connection>() {
+            @Override
+            public Connection call() throws SQLException {
+                return DriverManager.getConnection(url);
+            }
+        });
+        synchronized (DBReferenceSingleton.getInstance().getLock(getFileAccDb())) {
+            new Thread(connect).start();
+            Connection conn = connect.get(60, TimeUnit.SECONDS);
+            assertNotNull(conn);
+            conn.close();
+        }
+    }
 }
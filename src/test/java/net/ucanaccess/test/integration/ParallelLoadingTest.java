@@ -0,0 +1,30 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+
+package net.ucanaccess.test.integration;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import net.ucanaccess.test.util.AccessVersion;
+
+@RunWith(Parameterized.class)
+public class ParallelLoadingTest extends AbstractLoadingTest {
+
+    public ParallelLoadingTest(AccessVersion _accessVersion) {
+        super(_accessVersion, ";loadingThreads=4");
+    }
+}
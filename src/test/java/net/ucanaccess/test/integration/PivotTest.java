@@ -16,6 +16,7 @@ limitations under the License.
 package net.ucanaccess.test.integration;
 
 import java.io.IOException;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.ParseException;
@@ -51,4 +52,23 @@ public class PivotTest extends AccessVersionAllTest {
         checkQuery("SELECT * FROM Table1_trim");
         st.close();
     }
+
+    @Test
+    public void testPivotRefreshedOnChange() throws SQLException, IOException {
+        Statement st = ucanaccess.createStatement();
+        int columns = countColumns(st);
+        assertEquals(columns, countColumns(st));
+        // a new quarter adds a column
+        st.execute("INSERT INTO TABLE1(COD,VALUE,DT) VALUES ('NEW PIVOT VALUE',1.5,#2003-12-07#)");
+        assertEquals(columns + 1, countColumns(st));
+        assertEquals(columns + 1, countColumns(st));
+        st.close();
+    }
+
+    private int countColumns(Statement st) throws SQLException {
+        ResultSet rs = st.executeQuery("SELECT * FROM Table1_trim");
+        int columns = rs.getMetaData().getColumnCount();
+        rs.close();
+        return columns;
+    }
 }
@@ -20,12 +20,14 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.List;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
+import net.ucanaccess.jdbc.UcanaccessConnection;
 import net.ucanaccess.jdbc.UcanaccessDriver;
 import net.ucanaccess.test.util.AccessVersion;
 import net.ucanaccess.test.util.AccessVersionAllTest;
@@ -79,4 +81,52 @@ public class ReloadPersistentMirrorTest extends AccessVersionAllTest {
         conn.close();
 
     }
+
+    @Test
+    public void testReuseMirrorReloadingChangedTables() throws Exception {
+        File dbFile = File.createTempFile("mirrorTest", fileFormat.getFileExtension(), TEST_DB_TEMP_DIR);
+        dbFile.delete();
+        File mirrorFile = File.createTempFile("mirrorTest", "", TEST_DB_TEMP_DIR);
+        mirrorFile.delete();
+
+        String urlCreate =
+                UcanaccessDriver.URL_PREFIX + dbFile.getAbsolutePath() + ";memory=true;immediatelyReleaseResources=true" + ";newDatabaseVersion=" + fileFormat.name();
+        Connection conn = DriverManager.getConnection(urlCreate, "", "");
+        Statement stCreate = conn.createStatement();
+        stCreate.execute("CREATE TABLE Table1 (ID COUNTER PRIMARY KEY, TextField TEXT(50))");
+        stCreate.execute("CREATE TABLE Table2 (ID COUNTER PRIMARY KEY, TextField TEXT(50))");
+        stCreate.execute("INSERT INTO Table2 (TextField) VALUES ('Stuff')");
+        stCreate.close();
+        conn.close();
+
+        String urlMirror =
+                UcanaccessDriver.URL_PREFIX + dbFile.getAbsolutePath() + ";immediatelyReleaseResources=true;keepMirror="
+                        + mirrorFile.getAbsolutePath();
+        conn = DriverManager.getConnection(urlMirror, "", "");
+        conn.close();
+
+        String urlUpdate =
+                UcanaccessDriver.URL_PREFIX + dbFile.getAbsolutePath() + ";memory=true;immediatelyReleaseResources=true";
+        conn = DriverManager.getConnection(urlUpdate, "", "");
+        Statement stUpdate = conn.createStatement();
+        stUpdate.executeUpdate("INSERT INTO Table1 (TextField) VALUES ('NewStuff')");
+        stUpdate.close();
+        conn.close();
+        dbFile.setLastModified(System.currentTimeMillis() + 2000);
+
+        UcanaccessConnection uconn = (UcanaccessConnection) DriverManager.getConnection(urlMirror, "", "");
+        List<String> stats = uconn.getLoadingStatistics();
+        Assert.assertEquals("REFRESH: 1 of 2 tables reloaded [Table1]", stats.get(stats.size() - 1));
+        Statement stSelect = uconn.createStatement();
+        ResultSet rs = stSelect.executeQuery("SELECT (SELECT COUNT(*) FROM Table1), (SELECT COUNT(*) FROM Table2) FROM DUAL");
+        rs.next();
+        Assert.assertEquals("Unexpected record count.", 1, rs.getInt(1));
+        Assert.assertEquals("Unexpected record count.", 1, rs.getInt(2));
+        stSelect.executeUpdate("INSERT INTO Table1 (TextField) VALUES ('MoreStuff')");
+        rs = stSelect.executeQuery("SELECT MAX(ID) FROM Table1");
+        rs.next();
+        Assert.assertEquals("Unexpected AutoNumber value.", 2, rs.getInt(1));
+        stSelect.close();
+        uconn.close();
+    }
 }
@@ -0,0 +1,94 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.test.integration;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import net.ucanaccess.jdbc.SQLConversionCache;
+import net.ucanaccess.test.util.AccessVersion;
+import net.ucanaccess.test.util.AccessVersion2007Test;
+
+@RunWith(Parameterized.class)
+public class SQLConversionCacheTest extends AccessVersion2007Test {
+
+    public SQLConversionCacheTest(AccessVersion _accessVersion) {
+        super(_accessVersion);
+    }
+
+    @Before
+    public void beforeTestCase() throws Exception {
+        executeStatements("CREATE TABLE [T CACHE] (ID LONG PRIMARY KEY, [YEAR] LONG, DESCR TEXT(20))",
+                "INSERT INTO [T CACHE] VALUES (1, 2017, 'a')", "INSERT INTO [T CACHE] VALUES (2, 2018, 'b')");
+    }
+
+    @After
+    public void afterTestCase() throws Exception {
+        dropTable("[T CACHE]");
+    }
+
+    @Test
+    public void testRepeatedStatementsHitCache() throws Exception {
+        SQLConversionCache cache = ucanaccess.getSQLConversions();
+        String sql = "SELECT [YEAR], DESCR FROM [T CACHE] WHERE ID = ?";
+        long hits = cache.getHits();
+        long misses = cache.getMisses();
+        for (int i = 1; i <= 2; i++) {
+            PreparedStatement ps = ucanaccess.prepareStatement(sql);
+            ps.setInt(1, i);
+            ps.executeQuery().close();
+            ps.close();
+        }
+        assertEquals(misses + 1, cache.getMisses());
+        assertEquals(hits + 1, cache.getHits());
+
+        Statement st = ucanaccess.createStatement();
+        st.executeUpdate("UPDATE [T CACHE] SET DESCR = 'c' WHERE [YEAR] = 2018");
+        st.executeUpdate("UPDATE [T CACHE] SET DESCR = 'c' WHERE [YEAR] = 2018");
+        st.close();
+        assertEquals(hits + 2, cache.getHits());
+        checkQuery("SELECT DESCR FROM [T CACHE] ORDER BY ID", new Object[][] { { "a" }, { "c" } });
+    }
+
+    @Test
+    public void testWhiteSpacedNamesConvertedByExecuteUpdate() throws Exception {
+        Statement st = ucanaccess.createStatement();
+        assertEquals(1, st.executeUpdate("UPDATE T CACHE SET DESCR = 'd' WHERE ID = 1"));
+        assertEquals(1, st.executeUpdate("UPDATE T CACHE SET DESCR = 'e' WHERE ID = 1"));
+        st.close();
+        checkQuery("SELECT DESCR FROM [T CACHE] ORDER BY ID", new Object[][] { { "e" }, { "b" } });
+    }
+
+    @Test
+    public void testDDLEmptiesCache() throws Exception {
+        SQLConversionCache cache = ucanaccess.getSQLConversions();
+        String sql = "SELECT COUNT(*) FROM [T CACHE]";
+        checkQuery(sql, 2);
+        assertTrue(cache.size() > 0);
+        executeStatements("ALTER TABLE [T CACHE] ADD COLUMN NOTE TEXT(10)");
+        assertEquals(0, cache.size());
+        long misses = cache.getMisses();
+        checkQuery(sql, 2);
+        assertEquals(misses + 1, cache.getMisses());
+        checkQuery("SELECT NOTE FROM [T CACHE] WHERE ID = 1", (Object) null);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.test.integration;
+
+import java.sql.PreparedStatement;
+import java.sql.Savepoint;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.healthmarketscience.jackcess.Database;
+import com.healthmarketscience.jackcess.DatabaseBuilder;
+import com.healthmarketscience.jackcess.Row;
+
+import net.ucanaccess.test.util.AccessVersion;
+import net.ucanaccess.test.util.AccessVersion2007Test;
+
+@RunWith(Parameterized.class)
+public class SpillThresholdTest extends AccessVersion2007Test {
+
+    public SpillThresholdTest(AccessVersion _accessVersion) {
+        super(_accessVersion);
+        appendToJdbcURL(";spillThreshold=4");
+    }
+
+    @Before
+    public void beforeTestCase() throws Exception {
+        executeStatements("CREATE TABLE T_SPILL (ID COUNTER PRIMARY KEY, N LONG, DESCR MEMO, DATA OLE)");
+    }
+
+    @After
+    public void afterTestCase() throws Exception {
+        dropTable("T_SPILL");
+    }
+
+    private static String text(int _n) {
+        char[] chars = new char[2000];
+        Arrays.fill(chars, (char) ('a' + _n % 26));
+        return new String(chars);
+    }
+
+    private static byte[] data(int _n) {
+        byte[] bytes = new byte[3000];
+        Arrays.fill(bytes, (byte) _n);
+        return bytes;
+    }
+
+    private void insertRows(int _from, int _to) throws Exception {
+        PreparedStatement ps = ucanaccess.prepareStatement("INSERT INTO T_SPILL (N, DESCR, DATA) VALUES (?, ?, ?)");
+        for (int i = _from; i < _to; i++) {
+            ps.setInt(1, i);
+            ps.setString(2, text(i));
+            ps.setBytes(3, data(i));
+            ps.executeUpdate();
+        }
+        ps.close();
+    }
+
+    @Test
+    public void testSpilledRowsReachAccessFile() throws Exception {
+        ucanaccess.setAutoCommit(false);
+        insertRows(0, 20);
+        Savepoint sp = ucanaccess.setSavepoint();
+        insertRows(20, 30);
+        ucanaccess.rollback(sp);
+        insertRows(30, 40);
+        ucanaccess.commit();
+        checkQuery("SELECT COUNT(*) FROM T_SPILL", 30);
+        checkQuery("SELECT ID, N, DESCR FROM T_SPILL ORDER BY ID");
+        Database db = new DatabaseBuilder(getFileAccDb()).setReadOnly(true).open();
+        try {
+            for (Row row : db.getTable("T_SPILL")) {
+                int n = row.getInt("N");
+                assertEquals(text(n), row.getString("DESCR"));
+                assertArrayEquals(data(n), row.getBytes("DATA"));
+            }
+        } finally {
+            db.close();
+        }
+    }
+
+    @Test
+    public void testRollbackDiscardsSpilledRows() throws Exception {
+        ucanaccess.setAutoCommit(false);
+        insertRows(0, 20);
+        ucanaccess.rollback();
+        insertRows(20, 22);
+        ucanaccess.commit();
+        checkQuery("SELECT N FROM T_SPILL ORDER BY N", new Object[][] { { 20 }, { 21 } });
+        checkQuery("SELECT ID, N, DESCR FROM T_SPILL ORDER BY ID");
+    }
+}
@@ -0,0 +1,77 @@
+/*
+Copyright (c) 2012 Marco Amadei.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package net.ucanaccess.test.integration;
+
+import java.sql.PreparedStatement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import net.ucanaccess.test.util.AccessVersion;
+import net.ucanaccess.test.util.AccessVersion2007Test;
+
+@RunWith(Parameterized.class)
+public class WriteBehindTest extends AccessVersion2007Test {
+
+    public WriteBehindTest(AccessVersion _accessVersion) {
+        super(_accessVersion);
+        appendToJdbcURL(";writeBehind=true");
+    }
+
+    @Before
+    public void beforeTestCase() throws Exception {
+        executeStatements("CREATE TABLE T_WB (ID COUNTER PRIMARY KEY, TXT TEXT(20), N LONG)");
+    }
+
+    @After
+    public void afterTestCase() throws Exception {
+        dropTable("T_WB");
+    }
+
+    @Test
+    public void testCommitsReachAccessFile() throws Exception {
+        ucanaccess.setAutoCommit(false);
+        PreparedStatement ps = ucanaccess.prepareStatement("INSERT INTO T_WB (TXT, N) VALUES (?, ?)");
+        // more transactions than the writer can queue
+        for (int i = 0; i < 200; i++) {
+            ps.setString(1, "row" + i);
+            ps.setInt(2, i);
+            ps.executeUpdate();
+            ucanaccess.commit();
+        }
+        ps.close();
+        executeStatements("DELETE FROM T_WB WHERE N >= 150", "UPDATE T_WB SET N = N * 2 WHERE N < 100");
+        ucanaccess.commit();
+        ucanaccess.sync();
+        checkQuery("SELECT COUNT(*), MAX(ID) FROM T_WB", 150, 150);
+        checkQuery("SELECT * FROM T_WB ORDER BY ID");
+    }
+
+    @Test
+    public void testAutoNumbersOfMirrorAreKept() throws Exception {
+        ucanaccess.setAutoCommit(false);
+        executeStatements("INSERT INTO T_WB (TXT, N) VALUES ('a', 1)");
+        ucanaccess.rollback();
+        executeStatements("INSERT INTO T_WB (TXT, N) VALUES ('b', 2)", "INSERT INTO T_WB (TXT, N) VALUES ('c', 3)");
+        ucanaccess.commit();
+        ucanaccess.sync();
+        checkQuery("SELECT ID, TXT FROM T_WB ORDER BY ID", new Object[][] { { 2, "b" }, { 3, "c" } });
+        checkQuery("SELECT * FROM T_WB ORDER BY ID");
+    }
+}